@@ -0,0 +1,34 @@
+package ru.itmo.is.lab1.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Конфигурация пула потоков для асинхронных заданий импорта.
+ *
+ * Пул и очередь ограничены: при переполнении новое задание отклоняется,
+ * а не занимает потоки Tomcat и соединения Hikari без ограничений.
+ */
+@Configuration
+public class ImportExecutorConfig {
+
+    @Value("${import.async.pool-size:2}")
+    private int poolSize;
+
+    @Value("${import.async.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Bean
+    public ThreadPoolTaskExecutor importExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("import-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        return executor;
+    }
+}
@@ -1,59 +1,79 @@
 package ru.itmo.is.lab1.config;
 
-import io.minio.BucketExistsArgs;
-import io.minio.MakeBucketArgs;
 import io.minio.MinioClient;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 /**
  * Конфигурация MinIO клиента для S3-совместимого файлового хранилища.
+ * Клиент создаётся только при storage.type=minio; bucket проверяется в {@code MinioObjectStorage}.
  */
 @Configuration
-@Slf4j
 public class MinioConfig {
 
-    @Value("${minio.endpoint}")
-    private String endpoint;
+    @Value("${minio.upload.max-concurrent-uploads:16}")
+    private int maxConcurrentUploads;
 
-    @Value("${minio.access-key}")
-    private String accessKey;
+    @Value("${minio.commit-outbox.pool-size:4}")
+    private int commitPoolSize;
 
-    @Value("${minio.secret-key}")
-    private String secretKey;
+    @Value("${minio.commit-outbox.queue-capacity:200}")
+    private int commitQueueCapacity;
 
-    @Value("${minio.bucket-name}")
-    private String bucketName;
+    @Bean
+    @ConditionalOnProperty(name = "storage.type", havingValue = "minio", matchIfMissing = true)
+    public MinioClient minioClient(@Value("${minio.endpoint}") String endpoint,
+                                   @Value("${minio.access-key}") String accessKey,
+                                   @Value("${minio.secret-key}") String secretKey) {
+        // Клиент не обращается к серверу при создании: запуск не зависит от доступности MinIO
+        return MinioClient.builder()
+                .endpoint(endpoint)
+                .credentials(accessKey, secretKey)
+                .build();
+    }
 
+    /**
+     * Пул потоков потоковой загрузки в хранилище: один поток на одновременно идущий импорт.
+     * Без очереди — при превышении лимита импорт отклоняется, а не ждёт.
+     */
     @Bean
-    public MinioClient minioClient() {
-        try {
-            MinioClient minioClient = MinioClient.builder()
-                    .endpoint(endpoint)
-                    .credentials(accessKey, secretKey)
-                    .build();
-
-            // Проверяем и создаём bucket если его нет
-            boolean bucketExists = minioClient.bucketExists(
-                    BucketExistsArgs.builder().bucket(bucketName).build()
-            );
-
-            if (!bucketExists) {
-                minioClient.makeBucket(
-                        MakeBucketArgs.builder().bucket(bucketName).build()
-                );
-                log.info("Создан bucket: {}", bucketName);
-            } else {
-                log.info("Bucket {} уже существует", bucketName);
-            }
-
-            return minioClient;
-        } catch (Exception e) {
-            log.error("Ошибка инициализации MinIO клиента: {}", e.getMessage());
-            throw new RuntimeException("Не удалось инициализировать MinIO клиент", e);
-        }
+    public ThreadPoolTaskExecutor minioUploadExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrentUploads);
+        executor.setMaxPoolSize(maxConcurrentUploads);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("minio-upload-");
+        return executor;
     }
-}
 
+    /**
+     * Пул переноса файлов из pending (StorageCommitOutbox).
+     * Очередь ограничена: не принятые задачи остаются в таблице outbox до следующего опроса.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor minioCommitExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(commitPoolSize);
+        executor.setMaxPoolSize(commitPoolSize);
+        executor.setQueueCapacity(commitQueueCapacity);
+        executor.setThreadNamePrefix("minio-commit-");
+        return executor;
+    }
+
+    /**
+     * Поток сверки pending файлов (PendingObjectReconciler): её обращения к хранилищу
+     * не занимают общий поток планировщика @Scheduled. Без очереди - сверки не накапливаются.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor minioReconcileExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("minio-reconcile-");
+        return executor;
+    }
+}
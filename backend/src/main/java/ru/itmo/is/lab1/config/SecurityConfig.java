@@ -48,6 +48,9 @@ public class SecurityConfig {
                         .requestMatchers("/api/import/**").authenticated()
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
                         .requestMatchers("/api/cache/**").hasRole("ADMIN")
+                        // Проверки состояния и сбор метрик Prometheus - без токена, остальной Actuator - для ADMIN
+                        .requestMatchers("/actuator/health/**", "/actuator/prometheus").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .anyRequest().permitAll()
                 )
                 .sessionManagement(session -> session
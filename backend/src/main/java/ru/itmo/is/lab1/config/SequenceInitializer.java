@@ -0,0 +1,82 @@
+package ru.itmo.is.lab1.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Выравнивание последовательностей SEQUENCE-генерации ID (allocationSize = 50) при запуске.
+ *
+ * ddl-auto: update создаёт отсутствующие последовательности со значения 1, а в существующей БД
+ * уже есть строки, созданные через IDENTITY. Поэтому до приёма запросов каждая последовательность
+ * сдвигается так, чтобы первый выданный блок начинался после MAX(id) - то же, что делает
+ * db/create_sequences.sql. Последовательность только сдвигается вперёд, поэтому запуск
+ * нескольких узлов одновременно безопасен. Если последовательности нет (ddl-auto: none
+ * без db/create_sequences.sql), запуск прерывается.
+ *
+ * Зависимость от entityManagerFactory гарантирует, что Hibernate уже обновил схему.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@Slf4j
+public class SequenceInitializer implements InitializingBean {
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    /**
+     * Таблица -> последовательность её ID.
+     */
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "coordinates", "coordinates_seq",
+            "location", "location_seq",
+            "person", "person_seq",
+            "address", "address_seq",
+            "organization", "organization_seq",
+            "worker", "worker_seq",
+            "storage_commit_outbox", "storage_commit_outbox_seq"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${db.sequences.align-on-startup:true}")
+    private boolean enabled;
+
+    public SequenceInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled) {
+            return;
+        }
+        SEQUENCES.forEach(this::align);
+    }
+
+    private void align(String table, String sequence) {
+        if (jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, sequence) != Boolean.TRUE) {
+            throw new IllegalStateException("Последовательность " + sequence
+                    + " не найдена: выполните db/create_sequences.sql");
+        }
+
+        // Следующий nextval: last_value, если последовательность ещё не вызывалась, иначе last_value + шаг.
+        // Pooled optimizer выдаёт ID с (nextval - 49), поэтому nextval должен быть не меньше MAX(id) + 50
+        // setval не транзакционна, поэтому действует и без явного коммита (auto-commit: false)
+        List<Long> aligned = jdbcTemplate.queryForList(
+                "SELECT setval('" + sequence + "', t.max_id + " + ALLOCATION_SIZE + ", false) " +
+                "FROM (SELECT COALESCE(MAX(id), 0) AS max_id FROM " + table + ") AS t, " + sequence + " AS s " +
+                "WHERE CASE WHEN s.is_called THEN s.last_value + " + ALLOCATION_SIZE + " ELSE s.last_value END " +
+                "< t.max_id + " + ALLOCATION_SIZE,
+                Long.class);
+        if (!aligned.isEmpty()) {
+            log.warn("Последовательность {} была ниже MAX(id) таблицы {}, сдвинута до {}",
+                    sequence, table, aligned.get(0));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package ru.itmo.is.lab1.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ExecutorConfigurationSupport;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Режим виртуальных потоков (профиль virtual-threads, свойство app.threads.virtual).
+ *
+ * Запросы Tomcat обрабатываются в виртуальном потоке на запрос, поэтому ожидание
+ * соединения Hikari и HTTP-вызовов MinIO (в том числе перенос файла в afterCommit)
+ * не занимает потоки платформы. Пулы приложения (импорт, загрузка в MinIO,
+ * каналы и брокер WebSocket, планировщик) сохраняют свои лимиты параллелизма,
+ * но создают виртуальные потоки.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.threads.virtual", havingValue = "true")
+@Slf4j
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        log.info("Обработка HTTP-запросов на виртуальных потоках");
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * Подменяет фабрику потоков у всех пулов Spring до их инициализации.
+     */
+    @Bean
+    public static BeanPostProcessor virtualThreadExecutorPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof ExecutorConfigurationSupport executor) {
+                    executor.setThreadFactory(Thread.ofVirtual()
+                            .name(executor.getThreadNamePrefix(), 0)
+                            .factory());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -1,11 +1,16 @@
 package ru.itmo.is.lab1.controller;
 
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
-import ru.itmo.is.lab1.aop.CacheStatisticsAspect;
+import ru.itmo.is.lab1.dto.CacheRegionResizeRequest;
+import ru.itmo.is.lab1.dto.CacheRegionStatisticsDTO;
+import ru.itmo.is.lab1.service.CacheRegionService;
+import ru.itmo.is.lab1.service.CacheStatisticsService;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -17,15 +22,43 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class CacheController {
 
-    private final CacheStatisticsAspect cacheStatisticsAspect;
+    private final CacheStatisticsService cacheStatisticsService;
+    private final CacheRegionService cacheRegionService;
 
     /**
      * Получить текущую статистику кэша.
      */
     @GetMapping("/statistics")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<CacheStatisticsAspect.CacheStatisticsDTO> getStatistics() {
-        return ResponseEntity.ok(cacheStatisticsAspect.getCacheStatistics());
+    public ResponseEntity<CacheStatisticsService.CacheStatisticsDTO> getStatistics() {
+        return ResponseEntity.ok(cacheStatisticsService.getCacheStatistics());
+    }
+
+    /**
+     * Статистика по регионам: записи, размеры уровней, TTL, попадания, промахи и вытеснения.
+     */
+    @GetMapping("/regions")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<CacheRegionStatisticsDTO>> getRegionStatistics() {
+        return ResponseEntity.ok(cacheRegionService.getRegionStatistics());
+    }
+
+    @GetMapping("/regions/{region}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CacheRegionStatisticsDTO> getRegionStatistics(@PathVariable String region) {
+        return ResponseEntity.ok(cacheRegionService.getRegionStatistics(region));
+    }
+
+    /**
+     * Изменить размер heap уровня региона без перезапуска (до следующего перезапуска).
+     */
+    @PutMapping("/regions/{region}/heap")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CacheRegionStatisticsDTO> resizeRegionHeap(
+            @PathVariable String region,
+            @Valid @RequestBody CacheRegionResizeRequest request
+    ) {
+        return ResponseEntity.ok(cacheRegionService.resizeHeap(region, request.getHeapSize()));
     }
 
     /**
@@ -33,9 +66,9 @@ public class CacheController {
      */
     @PostMapping("/statistics/log")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<CacheStatisticsAspect.CacheStatisticsDTO> logStatistics() {
-        cacheStatisticsAspect.logFullStatistics();
-        return ResponseEntity.ok(cacheStatisticsAspect.getCacheStatistics());
+    public ResponseEntity<CacheStatisticsService.CacheStatisticsDTO> logStatistics() {
+        cacheStatisticsService.logFullStatistics();
+        return ResponseEntity.ok(cacheStatisticsService.getCacheStatistics());
     }
 
     /**
@@ -44,7 +77,7 @@ public class CacheController {
     @PostMapping("/statistics/clear")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Map<String, String>> clearStatistics() {
-        cacheStatisticsAspect.clearStatistics();
+        cacheStatisticsService.clearStatistics();
         return ResponseEntity.ok(Map.of("message", "Статистика кэша сброшена"));
     }
 
@@ -54,7 +87,7 @@ public class CacheController {
     @GetMapping("/logging/status")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Map<String, Boolean>> getLoggingStatus() {
-        return ResponseEntity.ok(Map.of("enabled", cacheStatisticsAspect.isStatisticsEnabled()));
+        return ResponseEntity.ok(Map.of("enabled", cacheStatisticsService.isStatisticsEnabled()));
     }
 
     /**
@@ -63,7 +96,7 @@ public class CacheController {
     @PostMapping("/logging/enable")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Map<String, String>> enableLogging() {
-        cacheStatisticsAspect.setStatisticsEnabled(true);
+        cacheStatisticsService.setStatisticsEnabled(true);
         return ResponseEntity.ok(Map.of("message", "Логирование статистики кэша включено"));
     }
 
@@ -73,7 +106,7 @@ public class CacheController {
     @PostMapping("/logging/disable")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Map<String, String>> disableLogging() {
-        cacheStatisticsAspect.setStatisticsEnabled(false);
+        cacheStatisticsService.setStatisticsEnabled(false);
         return ResponseEntity.ok(Map.of("message", "Логирование статистики кэша отключено"));
     }
 }
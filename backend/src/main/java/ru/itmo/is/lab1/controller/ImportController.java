@@ -2,26 +2,37 @@ package ru.itmo.is.lab1.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.InputStreamResource;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.itmo.is.lab1.dto.ImportHistoryDTO;
 import ru.itmo.is.lab1.dto.ImportResultDTO;
 import ru.itmo.is.lab1.dto.PageResponse;
+import ru.itmo.is.lab1.entity.ImportMode;
 import ru.itmo.is.lab1.entity.Role;
 import ru.itmo.is.lab1.security.CustomUserDetails;
+import ru.itmo.is.lab1.service.ImportJobService;
+import ru.itmo.is.lab1.service.ImportRetryPolicy;
 import ru.itmo.is.lab1.service.ImportService;
+import ru.itmo.is.lab1.service.ImportService.ImportFile;
+import ru.itmo.is.lab1.service.MinioService;
+import ru.itmo.is.lab1.service.ObjectStorage.StoredObject;
+import ru.itmo.is.lab1.service.StorageCommitOutbox;
 
-import java.io.InputStream;
 import java.net.URLEncoder;
+import java.nio.channels.Channels;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/import")
@@ -31,29 +42,66 @@ import java.nio.charset.StandardCharsets;
 public class ImportController {
 
     private final ImportService importService;
+    private final ImportJobService importJobService;
+    private final ImportRetryPolicy importRetryPolicy;
+    private final MinioService minioService;
+    private final StorageCommitOutbox storageCommitOutbox;
 
     @PostMapping("/workers")
     public ResponseEntity<ImportResultDTO> importWorkers(
             @RequestParam("file") MultipartFile file,
             @AuthenticationPrincipal CustomUserDetails userDetails
     ) {
-        if (file.isEmpty()) {
-            throw new RuntimeException("Файл не может быть пустым");
-        }
+        validateImportFile(file);
 
-        String contentType = file.getContentType();
-        if (contentType == null || !contentType.equals("application/json")) {
-            // Также разрешаем файлы с расширением .json
-            String filename = file.getOriginalFilename();
-            if (filename == null || !filename.toLowerCase().endsWith(".json")) {
-                throw new RuntimeException("Поддерживается только JSON формат файла");
-            }
-        }
-
-        ImportResultDTO result = importService.importWorkers(file, userDetails.getUserId());
+        // Каждая попытка - новая транзакция; повторяется только при временных ошибках БД
+        ImportResultDTO result = importRetryPolicy.execute("Импорт файла " + file.getOriginalFilename(),
+                () -> importService.importWorkers(file, userDetails.getUserId()));
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * Асинхронный импорт: сразу возвращает запись истории (ID задания) со статусом IN_PROGRESS.
+     * Прогресс публикуется через WebSocket в /topic/imports/{id}.
+     * mode=CHUNKED - коммит каждые import.chunked.commit-interval строк с контрольной точкой.
+     */
+    @PostMapping("/workers/async")
+    public ResponseEntity<ImportHistoryDTO> importWorkersAsync(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(defaultValue = "ATOMIC") ImportMode mode,
+            @AuthenticationPrincipal CustomUserDetails userDetails
+    ) {
+        validateImportFile(file);
+
+        ImportHistoryDTO job = importJobService.submit(file, userDetails.getUserId(), mode);
+        return ResponseEntity.accepted().body(job);
+    }
+
+    /**
+     * Продолжение неуспешного импорта CHUNKED со строки после контрольной точки.
+     */
+    @PostMapping("/jobs/{id}/resume")
+    public ResponseEntity<ImportHistoryDTO> resumeImport(
+            @PathVariable Long id,
+            @AuthenticationPrincipal CustomUserDetails userDetails
+    ) {
+        boolean isAdmin = userDetails.getUser().getRole() == Role.ADMIN;
+        ImportHistoryDTO job = importJobService.resume(id, userDetails.getUserId(), isAdmin);
+        return ResponseEntity.accepted().body(job);
+    }
+
+    /**
+     * Состояние задания импорта.
+     */
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<ImportHistoryDTO> getImportStatus(
+            @PathVariable Long id,
+            @AuthenticationPrincipal CustomUserDetails userDetails
+    ) {
+        boolean isAdmin = userDetails.getUser().getRole() == Role.ADMIN;
+        return ResponseEntity.ok(importService.getImportStatus(id, userDetails.getUserId(), isAdmin));
+    }
+
     @GetMapping("/history")
     public ResponseEntity<PageResponse<ImportHistoryDTO>> getImportHistory(
             @RequestParam(defaultValue = "0") int page,
@@ -73,39 +121,138 @@ public class ImportController {
     }
 
     /**
-     * Скачивание файла импорта из MinIO.
+     * Скачивание файла импорта из хранилища.
+     *
+     * Запись истории читается один раз. Ответ содержит ETag объекта: повторный запрос
+     * с If-None-Match получает 304 без тела. Range (один диапазон байт, с учётом If-Range)
+     * отдаётся как 206, и из хранилища читается только запрошенная часть.
+     * Тело пишется напрямую в канал ответа ({@link MinioService#transferFile}).
      */
     @GetMapping("/history/{id}/download")
-    public ResponseEntity<InputStreamResource> downloadImportFile(
+    public ResponseEntity<StreamingResponseBody> downloadImportFile(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
             @AuthenticationPrincipal CustomUserDetails userDetails
     ) {
         try {
             boolean isAdmin = userDetails.getUser().getRole() == Role.ADMIN;
             
-            // Получаем имя файла
-            String fileName = importService.getImportFileName(id);
-            
-            // Получаем поток файла
-            InputStream fileStream = importService.getImportFile(
-                    id, 
-                    userDetails.getUserId(), 
-                    isAdmin
-            );
+            // Проверяем доступ до отправки заголовков: тело ответа пишется уже после них
+            ImportFile file = importService.getImportFile(id, userDetails.getUserId(), isAdmin);
+            StoredObject object;
+            try {
+                object = minioService.statFile(file.objectName());
+            } catch (MinioService.MinioOperationException e) {
+                // Сразу после SUCCESS файл может быть ещё в pending: переносим его, не дожидаясь outbox.
+                // Если задачи переноса нет, файла действительно нет, и повторный stat вернёт ту же ошибку
+                storageCommitOutbox.commitNow(minioService.pendingObjectName(file.objectName()));
+                object = minioService.statFile(file.objectName());
+            }
+            String etag = "\"" + object.etag() + "\"";
+
+            if (ifNoneMatch != null && etagMatches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(etag)
+                        .cacheControl(CacheControl.noCache().cachePrivate())
+                        .build();
+            }
 
             // Кодируем имя файла для заголовка Content-Disposition
-            String encodedFileName = URLEncoder.encode(fileName, StandardCharsets.UTF_8)
+            String encodedFileName = URLEncoder.encode(file.fileName(), StandardCharsets.UTF_8)
                     .replace("+", "%20");
 
-            return ResponseEntity.ok()
+            long size = object.size();
+            long start = 0;
+            long end = size - 1;
+            HttpStatus status = HttpStatus.OK;
+            // Диапазон учитывается, только если If-Range отсутствует или совпадает с текущим ETag
+            if (rangeHeader != null && (ifRange == null || ifRange.trim().equals(etag))) {
+                List<HttpRange> ranges;
+                try {
+                    ranges = HttpRange.parseRanges(rangeHeader);
+                } catch (IllegalArgumentException e) {
+                    ranges = List.of();
+                }
+                // Несколько диапазонов (multipart/byteranges) не поддерживаются - отдаём файл целиком
+                if (ranges.size() == 1) {
+                    HttpRange range = ranges.get(0);
+                    try {
+                        start = range.getRangeStart(size);
+                        end = range.getRangeEnd(size);
+                    } catch (IllegalArgumentException e) {
+                        start = size;
+                    }
+                    if (start >= size || start > end) {
+                        return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                                .header(HttpHeaders.CONTENT_RANGE, "bytes */" + size)
+                                .build();
+                    }
+                    status = HttpStatus.PARTIAL_CONTENT;
+                }
+            }
+
+            String objectName = file.objectName();
+            long offset = start;
+            long length = end - start + 1;
+            StreamingResponseBody body = out -> {
+                if (length > 0) {
+                    minioService.transferFile(objectName, offset, length, Channels.newChannel(out));
+                }
+                out.flush();
+            };
+
+            ResponseEntity.BodyBuilder response = ResponseEntity.status(status)
                     .contentType(MediaType.APPLICATION_JSON)
+                    .contentLength(length)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
                     .header(HttpHeaders.CONTENT_DISPOSITION, 
-                            "attachment; filename*=UTF-8''" + encodedFileName)
-                    .body(new InputStreamResource(fileStream));
+                            "attachment; filename*=UTF-8''" + encodedFileName);
+            if (status == HttpStatus.PARTIAL_CONTENT) {
+                response.header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+            return response.body(body);
 
         } catch (Exception e) {
             log.error("Ошибка скачивания файла: ", e);
             throw new RuntimeException("Ошибка скачивания файла: " + e.getMessage());
         }
     }
+
+    /**
+     * Сравнение If-None-Match с ETag (слабое сравнение, как требует RFC 9110).
+     */
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*")) {
+                return true;
+            }
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void validateImportFile(MultipartFile file) {
+        if (file.isEmpty()) {
+            throw new RuntimeException("Файл не может быть пустым");
+        }
+
+        String contentType = file.getContentType();
+        if (contentType == null || !contentType.equals("application/json")) {
+            // Также разрешаем файлы с расширением .json
+            String filename = file.getOriginalFilename();
+            if (filename == null || !filename.toLowerCase().endsWith(".json")) {
+                throw new RuntimeException("Поддерживается только JSON формат файла");
+            }
+        }
+    }
 }
@@ -8,6 +8,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.itmo.is.lab1.dto.CursorPageResponse;
 import ru.itmo.is.lab1.dto.PageResponse;
 import ru.itmo.is.lab1.dto.WorkerDTO;
 import ru.itmo.is.lab1.service.WorkerService;
@@ -22,17 +23,30 @@ public class WorkerController {
 
     private final WorkerService workerService;
 
+    /**
+     * Список работников. По умолчанию — постраничный (page/size) с общим количеством.
+     * Если передан параметр {@code after} (пустой — первая страница), включается keyset-пагинация:
+     * ответ содержит nextCursor и не считает общее количество записей.
+     */
     @GetMapping
-    public ResponseEntity<PageResponse<WorkerDTO>> getAll(
+    public ResponseEntity<?> getAll(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String sortBy,
             @RequestParam(defaultValue = "ASC") String sortDirection,
             @RequestParam(required = false) String filterName,
             @RequestParam(required = false) String filterPosition,
-            @RequestParam(required = false) String filterStatus
+            @RequestParam(required = false) String filterStatus,
+            @RequestParam(required = false) String after
     ) {
         Sort.Direction direction = Sort.Direction.fromString(sortDirection);
+
+        if (after != null) {
+            CursorPageResponse<WorkerDTO> response = workerService.getAllAfter(
+                    after, size, sortBy, direction, filterName, filterPosition, filterStatus);
+            return ResponseEntity.ok(response);
+        }
+
         Pageable pageable = sortBy != null 
                 ? PageRequest.of(page, size, Sort.by(direction, sortBy))
                 : PageRequest.of(page, size);
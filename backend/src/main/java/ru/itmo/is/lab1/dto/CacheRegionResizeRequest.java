@@ -0,0 +1,19 @@
+package ru.itmo.is.lab1.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Новый размер heap уровня региона L2 кэша (в единицах, заданных в ehcache.xml).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheRegionResizeRequest {
+    @NotNull(message = "Размер heap не может быть null")
+    @Positive(message = "Размер heap должен быть больше 0")
+    private Long heapSize;
+}
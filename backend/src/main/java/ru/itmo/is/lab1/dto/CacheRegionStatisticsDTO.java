@@ -0,0 +1,30 @@
+package ru.itmo.is.lab1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Статистика и текущая конфигурация одного региона L2 кэша.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheRegionStatisticsDTO {
+    private String region;
+    // Записи во всех уровнях (heap + offheap)
+    private long entries;
+    private long heapSize;
+    private String heapUnit;
+    // null, если уровня offheap у региона нет
+    private Long offheapSize;
+    private String offheapUnit;
+    // null, если записи не истекают
+    private Long ttlSeconds;
+    private long hits;
+    private long misses;
+    private long puts;
+    private double hitRatio;
+    // -1, если статистика JCache для региона недоступна
+    private long evictions;
+}
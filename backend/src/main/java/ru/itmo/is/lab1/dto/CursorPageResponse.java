@@ -0,0 +1,21 @@
+package ru.itmo.is.lab1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Страница в режиме keyset-пагинации: без общего количества записей,
+ * следующая страница запрашивается по непрозрачному курсору nextCursor.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+    private List<T> content;
+    private int pageSize;
+    private String nextCursor;
+    private boolean last;
+}
@@ -3,6 +3,7 @@ package ru.itmo.is.lab1.dto;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import ru.itmo.is.lab1.entity.ImportMode;
 import ru.itmo.is.lab1.entity.ImportStatus;
 
 import java.time.LocalDateTime;
@@ -21,4 +22,6 @@ public class ImportHistoryDTO {
     private String fileName;
     private String minioObjectName;
     private boolean fileAvailable;
+    private ImportMode mode;
+    private Integer checkpointRow;
 }
@@ -0,0 +1,26 @@
+package ru.itmo.is.lab1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.itmo.is.lab1.entity.ImportStatus;
+
+/**
+ * Прогресс импорта, публикуемый в /topic/imports/{importId}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportProgressDTO {
+    private Long importId;
+    private ImportStatus status;
+    private int parsedCount;
+    private int validatedCount;
+    private int persistedCount;
+    private String errorMessage;
+
+    public ImportProgressDTO(Long importId) {
+        this.importId = importId;
+        this.status = ImportStatus.IN_PROGRESS;
+    }
+}
@@ -0,0 +1,24 @@
+package ru.itmo.is.lab1.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Пачка изменений работников, публикуемая в /topic/workers/batch.
+ *
+ * Если изменений за окно накопилось больше лимита, списки пустые, а reload = true:
+ * клиенту нужно перезагрузить данные целиком.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkerEventBatchDTO {
+    private List<WorkerDTO> created = new ArrayList<>();
+    private List<WorkerDTO> updated = new ArrayList<>();
+    private List<Long> deleted = new ArrayList<>();
+    private boolean reload;
+}
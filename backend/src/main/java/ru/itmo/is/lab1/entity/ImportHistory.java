@@ -11,7 +11,10 @@ import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "import_history")
+@Table(name = "import_history", indexes = {
+        // Сверка pending файлов MinIO с историей импорта (PendingObjectReconciler)
+        @Index(name = "idx_import_history_minio_object_name", columnList = "minio_object_name")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -48,6 +51,15 @@ public class ImportHistory {
     @Column(name = "minio_object_name")
     private String minioObjectName;
 
+    // Режим импорта; null у записей, созданных до появления режимов, означает ATOMIC
+    @Enumerated(EnumType.STRING)
+    @Column(name = "import_mode")
+    private ImportMode mode;
+
+    // Номер последней закоммиченной строки файла (только для режима CHUNKED)
+    @Column(name = "checkpoint_row")
+    private Integer checkpointRow;
+
     @PrePersist
     protected void onCreate() {
         timestamp = LocalDateTime.now();
@@ -0,0 +1,11 @@
+package ru.itmo.is.lab1.entity;
+
+/**
+ * Режим импорта.
+ * ATOMIC - весь файл в одной транзакции (всё или ничего), CHUNKED - коммит каждые N строк
+ * с контрольной точкой, после которой неуспешный импорт можно продолжить.
+ */
+public enum ImportMode {
+    ATOMIC,
+    CHUNKED
+}
@@ -0,0 +1,59 @@
+package ru.itmo.is.lab1.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Запись outbox фазы COMMIT: pending файл, который нужно перенести в постоянное хранилище.
+ * Создаётся в транзакции импорта и удаляется после успешного переноса.
+ * После minio.commit-outbox.max-attempts неуспешных попыток переходит в конечное состояние
+ * (failedAt) и больше не выполняется; pending файл остаётся для ручного восстановления.
+ */
+@Entity
+@Table(name = "storage_commit_outbox", indexes = {
+        @Index(name = "idx_storage_commit_outbox_next_attempt_at", columnList = "next_attempt_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StorageCommitTask {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "storage_commit_outbox_seq")
+    @SequenceGenerator(name = "storage_commit_outbox_seq", sequenceName = "storage_commit_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "pending_object_name", nullable = false, unique = true, length = 1024)
+    private String pendingObjectName;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    // Время следующей попытки; пока задача выполняется, сдвигается на время аренды
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "last_error", length = 2000)
+    private String lastError;
+
+    // Время перевода в конечное состояние; null, пока задача повторяется
+    @Column(name = "failed_at")
+    private LocalDateTime failedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+        if (attempts == null) {
+            attempts = 0;
+        }
+    }
+}
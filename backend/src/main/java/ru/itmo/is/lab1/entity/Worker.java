@@ -14,15 +14,43 @@ import java.time.LocalDate;
 import java.util.Date;
 
 @Entity
-@Table(name = "worker")
+@Table(name = "worker", indexes = {
+        // Индексы для keyset-пагинации по (поле сортировки, id)
+        @Index(name = "idx_worker_name_id", columnList = "name, id"),
+        @Index(name = "idx_worker_salary_id", columnList = "salary, id"),
+        @Index(name = "idx_worker_creationdate_id", columnList = "creationdate, id"),
+        @Index(name = "idx_worker_startdate_id", columnList = "startdate, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Cacheable
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NamedEntityGraph(
+        name = Worker.FULL_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode("coordinates"),
+                @NamedAttributeNode(value = "person", subgraph = "person"),
+                @NamedAttributeNode(value = "organization", subgraph = "organization")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "person", attributeNodes = @NamedAttributeNode("location")),
+                @NamedSubgraph(name = "organization", attributeNodes = {
+                        @NamedAttributeNode("officialAddress"),
+                        @NamedAttributeNode("postalAddress")
+                })
+        }
+)
 public class Worker {
+    /**
+     * Граф полного агрегата работника (всё, что читает MapperService.toDTO),
+     * загружаемый одним SELECT с join-ами вместо отдельного запроса на каждую связь.
+     */
+    public static final String FULL_GRAPH = "Worker.full";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "worker_seq")
+    @SequenceGenerator(name = "worker_seq", sequenceName = "worker_seq", allocationSize = 50)
     @Positive(message = "ID должен быть больше 0")
     private Long id;
 
@@ -2,6 +2,7 @@ package ru.itmo.is.lab1.exception;
 
 import jakarta.persistence.EntityNotFoundException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -21,6 +22,9 @@ import java.util.Map;
 @Slf4j
 public class GlobalExceptionHandler {
 
+    @Value("${spring.servlet.multipart.max-file-size:10MB}")
+    private String maxFileSize;
+
     @ExceptionHandler(EntityNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleEntityNotFound(EntityNotFoundException ex) {
         ErrorResponse error = new ErrorResponse(ex.getMessage(), HttpStatus.NOT_FOUND.value());
@@ -64,7 +68,7 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(MaxUploadSizeExceededException.class)
     public ResponseEntity<ErrorResponse> handleMaxUploadSize(MaxUploadSizeExceededException ex) {
-        ErrorResponse error = new ErrorResponse("Размер файла превышает допустимый лимит (10MB)", HttpStatus.BAD_REQUEST.value());
+        ErrorResponse error = new ErrorResponse("Размер файла превышает допустимый лимит (" + maxFileSize + ")", HttpStatus.BAD_REQUEST.value());
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
 
@@ -3,13 +3,27 @@ package ru.itmo.is.lab1.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.itmo.is.lab1.entity.ImportHistory;
 import ru.itmo.is.lab1.entity.User;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface ImportHistoryRepository extends JpaRepository<ImportHistory, Long> {
     Page<ImportHistory> findByUser(User user, Pageable pageable);
     Page<ImportHistory> findByUserId(Long userId, Pageable pageable);
+
+    List<ImportHistory> findByMinioObjectName(String minioObjectName);
+
+    /**
+     * Из переданных имён объектов возвращает те, что записаны в истории импорта
+     * (то есть транзакция импорта закоммичена).
+     */
+    @Query("SELECT h.minioObjectName FROM ImportHistory h WHERE h.minioObjectName IN :objectNames")
+    List<String> findExistingObjectNames(@Param("objectNames") Collection<String> objectNames);
 }
 
@@ -1,10 +1,16 @@
 package ru.itmo.is.lab1.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.itmo.is.lab1.entity.Organization;
 
+import java.util.List;
+
 @Repository
 public interface OrganizationRepository extends JpaRepository<Organization, Long> {
-}
 
+    @Query("SELECT o.id FROM Organization o ORDER BY o.id")
+    List<Long> findAllIds(Pageable pageable);
+}
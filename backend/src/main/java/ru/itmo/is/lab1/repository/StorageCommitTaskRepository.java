@@ -0,0 +1,62 @@
+package ru.itmo.is.lab1.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.itmo.is.lab1.entity.StorageCommitTask;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StorageCommitTaskRepository extends JpaRepository<StorageCommitTask, Long> {
+
+    /**
+     * ID задач, время попытки которых наступило, в порядке очереди. Задачи в конечном состоянии не выбираются.
+     */
+    @Query("SELECT t.id FROM StorageCommitTask t WHERE t.nextAttemptAt <= :now AND t.failedAt IS NULL " +
+           "ORDER BY t.nextAttemptAt")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Захватывает задачу до leaseUntil. Возвращает 0, если задачу уже взял другой поток или узел.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE StorageCommitTask t SET t.nextAttemptAt = :leaseUntil " +
+           "WHERE t.id = :id AND t.nextAttemptAt <= :now AND t.failedAt IS NULL")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE StorageCommitTask t SET t.attempts = t.attempts + 1, t.nextAttemptAt = :nextAttemptAt, " +
+           "t.lastError = :error WHERE t.id = :id")
+    int recordFailure(@Param("id") Long id, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                      @Param("error") String error);
+
+    /**
+     * Переводит задачу в конечное состояние: больше не выполняется.
+     */
+    @Modifying
+    @Query("UPDATE StorageCommitTask t SET t.attempts = t.attempts + 1, t.failedAt = :failedAt, " +
+           "t.lastError = :error WHERE t.id = :id")
+    int markFailed(@Param("id") Long id, @Param("failedAt") LocalDateTime failedAt, @Param("error") String error);
+
+    long countByFailedAtIsNull();
+
+    long countByFailedAtIsNotNull();
+
+    Optional<StorageCommitTask> findByPendingObjectName(String pendingObjectName);
+
+    /**
+     * Из переданных имён pending объектов возвращает те, перенос которых ещё в очереди.
+     */
+    @Query("SELECT t.pendingObjectName FROM StorageCommitTask t WHERE t.pendingObjectName IN :objectNames")
+    List<String> findQueuedObjectNames(@Param("objectNames") Collection<String> objectNames);
+}
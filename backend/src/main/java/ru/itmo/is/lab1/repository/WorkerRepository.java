@@ -1,22 +1,30 @@
 package ru.itmo.is.lab1.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.itmo.is.lab1.entity.Worker;
 
 import ru.itmo.is.lab1.entity.Position;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
 @Repository
-public interface WorkerRepository extends JpaRepository<Worker, Long>, JpaSpecificationExecutor<Worker> {
+public interface WorkerRepository extends JpaRepository<Worker, Long>, JpaSpecificationExecutor<Worker>,
+        WorkerRepositoryCustom {
     
+    @EntityGraph(Worker.FULL_GRAPH)
     List<Worker> findByNameStartingWith(String prefix);
     
     List<Worker> findByRating(Integer rating);
@@ -24,8 +32,23 @@ public interface WorkerRepository extends JpaRepository<Worker, Long>, JpaSpecif
     List<Worker> findByOrganizationId(Long organizationId);
     
     long countByOrganizationId(Long organizationId);
+
+    @Query("SELECT COALESCE(SUM(w.rating), 0) FROM Worker w")
+    long sumRating();
+
+    /**
+     * ID организаций в порядке последнего добавления их работников (для прогрева L2 кэша).
+     */
+    @Query("SELECT w.organization.id FROM Worker w WHERE w.organization IS NOT NULL " +
+           "GROUP BY w.organization.id ORDER BY MAX(w.creationDate) DESC, MAX(w.id) DESC")
+    List<Long> findRecentOrganizationIds(Pageable pageable);
     
+    // Страница работников вместе со всеми связями: один SELECT с join-ами + отдельный COUNT
+    @EntityGraph(Worker.FULL_GRAPH)
     Page<Worker> findAll(Pageable pageable);
+
+    @EntityGraph(Worker.FULL_GRAPH)
+    Page<Worker> findAll(Specification<Worker> spec, Pageable pageable);
     
     // Для проверки уникальности имени и даты начала работы
     @Query("SELECT w FROM Worker w WHERE w.name = :name AND w.startDate = :startDate")
@@ -37,5 +60,21 @@ public interface WorkerRepository extends JpaRepository<Worker, Long>, JpaSpecif
             @Param("name") String name, 
             @Param("position") Position position, 
             @Param("orgId") Long orgId);
-}
 
+    // Пакетная проверка уникальности имени и даты начала работы при импорте.
+    // Возвращает надмножество по IN-спискам, точные пары отбираются в WorkerValidationService.
+    // FlushMode COMMIT: запрос не должен сбрасывать накопленные JDBC-батчи импорта
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("SELECT w.name, w.startDate FROM Worker w WHERE w.name IN :names AND w.startDate IN :startDates")
+    List<Object[]> findNameAndStartDatePairs(
+            @Param("names") Collection<String> names,
+            @Param("startDates") Collection<Date> startDates);
+
+    // Пакетная проверка уникальности имя + должность + организация при импорте
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("SELECT w.name, w.position, w.organization.id FROM Worker w " +
+            "WHERE w.name IN :names AND w.organization.id IN :orgIds AND w.position IS NOT NULL")
+    List<Object[]> findNamePositionOrganizationTriples(
+            @Param("names") Collection<String> names,
+            @Param("orgIds") Collection<Long> orgIds);
+}
@@ -0,0 +1,34 @@
+package ru.itmo.is.lab1.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import ru.itmo.is.lab1.entity.Worker;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Запросы к работникам, которые не выражаются через derived/@Query методы.
+ */
+public interface WorkerRepositoryCustom {
+
+    /**
+     * Выборка первых {@code limit} работников по спецификации и сортировке без COUNT-запроса
+     * (для keyset-пагинации). Связи загружаются графом {@link Worker#FULL_GRAPH}.
+     */
+    List<Worker> findAllSeek(Specification<Worker> spec, Sort sort, int limit);
+
+    /**
+     * Удаляет всех работников с данным рейтингом одним DELETE ... RETURNING id
+     * и вытесняет удалённые записи из L2 кэша.
+     *
+     * @return ID удалённых работников
+     */
+    List<Long> deleteByRatingReturningIds(Integer rating);
+
+    /**
+     * Захватывает исключительные транзакционные advisory-блокировки PostgreSQL на хэши ключей уникальности.
+     * Блокировки берутся в порядке возрастания ключей одним запросом и снимаются при завершении транзакции.
+     */
+    void lockUniquenessKeys(Collection<Long> keys);
+}
@@ -0,0 +1,94 @@
+package ru.itmo.is.lab1.repository;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import ru.itmo.is.lab1.entity.Worker;
+import ru.itmo.is.lab1.service.CacheInvalidationBus;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class WorkerRepositoryCustomImpl implements WorkerRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Override
+    public List<Worker> findAllSeek(Specification<Worker> spec, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Worker> query = cb.createQuery(Worker.class);
+        Root<Worker> root = query.from(Worker.class);
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .setHint("jakarta.persistence.fetchgraph", entityManager.getEntityGraph(Worker.FULL_GRAPH))
+                .getResultList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Long> deleteByRatingReturningIds(Integer rating) {
+        // Несохранённые изменения должны попасть в БД до set-based DELETE
+        entityManager.flush();
+
+        List<Long> deletedIds = entityManager
+                .createNativeQuery("DELETE FROM worker WHERE rating = :rating RETURNING id", Long.class)
+                .setParameter("rating", rating)
+                .getResultList();
+
+        // Нативный запрос обходит L2 кэш: вытесняем удалённые сущности точечно,
+        // а кэш запросов целиком, так как Hibernate не знает об изменении таблицы worker
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        deletedIds.forEach(id -> cache.evict(Worker.class, id));
+        entityManager.getEntityManagerFactory().unwrap(SessionFactory.class)
+                .getCache()
+                .evictQueryRegions();
+        // Другим узлам - через шину инвалидации после коммита
+        cacheInvalidationBus.entitiesChanged(entityManager.unwrap(SessionImplementor.class),
+                Worker.class.getName(), deletedIds);
+
+        return deletedIds;
+    }
+
+    @Override
+    public void lockUniquenessKeys(Collection<Long> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        // unnest возвращает элементы в порядке массива, поэтому блокировки берутся по возрастанию:
+        // транзакции с пересекающимися ключами в пределах одного вызова не блокируют друг друга крест-накрест
+        String sortedKeys = keys.stream()
+                .sorted()
+                .distinct()
+                .map(String::valueOf)
+                .collect(Collectors.joining(",", "{", "}"));
+
+        entityManager.createNativeQuery(
+                        "SELECT count(*) FROM (SELECT pg_advisory_xact_lock(k) " +
+                        "FROM unnest(CAST(:keys AS bigint[])) AS k) AS locked")
+                .setParameter("keys", sortedKeys)
+                .getSingleResult();
+    }
+}
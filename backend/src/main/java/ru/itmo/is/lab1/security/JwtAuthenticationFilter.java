@@ -1,10 +1,12 @@
 package ru.itmo.is.lab1.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -21,6 +23,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final CustomUserDetailsService userDetailsService;
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    /**
+     * Если включено, принципал строится из claims токена без запроса пользователя из БД.
+     * Токены без claims пользователя и отозванные токены проверяются по БД.
+     * Выключено по умолчанию: отзыв токенов хранится в памяти узла, поэтому удаление или
+     * понижение пользователя на другом узле (или до перезапуска) не действует до истечения токена.
+     */
+    @Value("${jwt.stateless:false}")
+    private boolean stateless;
 
     @Override
     protected void doFilterInternal(
@@ -30,7 +42,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String username;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -40,12 +51,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         jwt = authHeader.substring(7);
         
         try {
-            username = jwtService.extractUsername(jwt);
-
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                UserDetails userDetails = authenticate(jwt);
 
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+                if (userDetails != null) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
@@ -61,5 +70,35 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
-}
 
+    /**
+     * Подпись и срок действия проверяются один раз; повторные запросы с тем же токеном
+     * обслуживаются из кэша проверенных токенов.
+     */
+    private UserDetails authenticate(String jwt) {
+        if (stateless) {
+            CustomUserDetails cached = verifiedTokenCache.get(jwt);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        Claims claims = jwtService.parseToken(jwt);
+        String username = claims.getSubject();
+        if (username == null) {
+            return null;
+        }
+
+        if (stateless) {
+            CustomUserDetails principal = jwtService.toPrincipal(claims);
+            if (principal != null && !verifiedTokenCache.isRevoked(principal.getUserId(), claims.getIssuedAt())) {
+                verifiedTokenCache.put(jwt, principal, claims.getIssuedAt(), claims.getExpiration());
+                return principal;
+            }
+        }
+
+        // Токен старого формата или отозван: актуальное состояние пользователя берётся из БД
+        UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+        return username.equals(userDetails.getUsername()) ? userDetails : null;
+    }
+}
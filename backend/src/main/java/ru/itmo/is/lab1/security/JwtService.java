@@ -1,11 +1,14 @@
 package ru.itmo.is.lab1.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import ru.itmo.is.lab1.entity.Role;
+import ru.itmo.is.lab1.entity.User;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
@@ -17,11 +20,31 @@ import java.util.function.Function;
 @Service
 public class JwtService {
 
-    @Value("${jwt.secret:mySecretKeyForJwtTokenGenerationMustBe256BitsLongEnough}")
-    private String secretKey;
-
-    @Value("${jwt.expiration:86400000}")
-    private long jwtExpiration;
+    /**
+     * Claims, из которых строится принципал без обращения к БД.
+     */
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_APPROVED = "approved";
+
+    private final long jwtExpiration;
+
+    /**
+     * Ключ подписи и парсер создаются один раз: оба неизменяемы и потокобезопасны,
+     * поэтому разделяются всеми запросами.
+     */
+    private final SecretKey signingKey;
+
+    private final JwtParser jwtParser;
+
+    public JwtService(@Value("${jwt.secret:mySecretKeyForJwtTokenGenerationMustBe256BitsLongEnough}") String secretKey,
+                      @Value("${jwt.expiration:86400000}") long jwtExpiration) {
+        this.jwtExpiration = jwtExpiration;
+        this.signingKey = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+    }
 
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -36,44 +59,71 @@ public class JwtService {
         return generateToken(new HashMap<>(), userDetails);
     }
 
+    /**
+     * Токен с данными пользователя (ID, роль, статус подтверждения) для аутентификации без запроса к БД.
+     */
+    public String generateToken(CustomUserDetails userDetails) {
+        User user = userDetails.getUser();
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_USER_ID, user.getId());
+        claims.put(CLAIM_ROLE, user.getRole().name());
+        claims.put(CLAIM_APPROVED, user.isApproved());
+        return generateToken(claims, userDetails);
+    }
+
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
         return buildToken(extraClaims, userDetails, jwtExpiration);
     }
 
     private String buildToken(Map<String, Object> extraClaims, UserDetails userDetails, long expiration) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
                 .claims(extraClaims)
                 .subject(userDetails.getUsername())
-                .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey())
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + expiration))
+                .signWith(signingKey)
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        // Срок действия проверяется парсером вместе с подписью (ExpiredJwtException)
+        final Claims claims = extractAllClaims(token);
+        return claims.getSubject().equals(userDetails.getUsername()) && !isTokenExpired(claims);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * Проверяет подпись и срок действия один раз и возвращает все claims.
+     */
+    public Claims parseToken(String token) {
+        return extractAllClaims(token);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    /**
+     * Строит принципала из claims токена. Возвращает null для токенов,
+     * выпущенных без данных пользователя.
+     */
+    public CustomUserDetails toPrincipal(Claims claims) {
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        Boolean approved = claims.get(CLAIM_APPROVED, Boolean.class);
+        if (userId == null || role == null || approved == null || claims.getSubject() == null) {
+            return null;
+        }
+
+        User user = new User();
+        user.setId(userId.longValue());
+        user.setUsername(claims.getSubject());
+        user.setRole(Role.valueOf(role));
+        user.setApproved(approved);
+        return new CustomUserDetails(user);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSignInKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = secretKey.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private Claims extractAllClaims(String token) {
+        return jwtParser.parseSignedClaims(token).getPayload();
     }
 }
-
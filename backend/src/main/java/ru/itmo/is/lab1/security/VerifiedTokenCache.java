@@ -0,0 +1,117 @@
+package ru.itmo.is.lab1.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ограниченный кэш уже проверенных JWT: повторный запрос с тем же токеном
+ * не проверяет подпись заново. Ключ - SHA-256 от токена, сам токен не хранится.
+ *
+ * Отзыв выполняется по пользователю: токены, выпущенные до отзыва, перестают
+ * приниматься без обращения к БД. Отзыв хранится в памяти одного узла.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final int maxSize;
+
+    private final long jwtExpiration;
+
+    private final Map<String, Entry> entries;
+
+    /**
+     * Момент последнего отзыва по ID пользователя.
+     */
+    private final Map<Long, Long> revokedAt = new ConcurrentHashMap<>();
+
+    public VerifiedTokenCache(@Value("${jwt.token-cache.max-size:10000}") int maxSize,
+                              @Value("${jwt.expiration:86400000}") long jwtExpiration) {
+        this.maxSize = maxSize;
+        this.jwtExpiration = jwtExpiration;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > VerifiedTokenCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Возвращает принципала для ранее проверенного токена или null,
+     * если токена нет в кэше, он истёк или отозван.
+     */
+    public CustomUserDetails get(String token) {
+        String key = hash(token);
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= System.currentTimeMillis()
+                || isRevoked(entry.principal().getUserId(), entry.issuedAt())) {
+            synchronized (entries) {
+                entries.remove(key);
+            }
+            return null;
+        }
+        return entry.principal();
+    }
+
+    public void put(String token, CustomUserDetails principal, Date issuedAt, Date expiration) {
+        if (maxSize <= 0) {
+            return;
+        }
+        Entry entry = new Entry(principal, issuedAt.getTime(), expiration.getTime());
+        synchronized (entries) {
+            entries.put(hash(token), entry);
+        }
+    }
+
+    /**
+     * Возвращает true, если токен пользователя выпущен до последнего отзыва.
+     */
+    public boolean isRevoked(Long userId, Date issuedAt) {
+        return issuedAt == null || isRevoked(userId, issuedAt.getTime());
+    }
+
+    private boolean isRevoked(Long userId, long issuedAt) {
+        Long revoked = revokedAt.get(userId);
+        return revoked != null && issuedAt <= revoked;
+    }
+
+    /**
+     * Отзывает все выпущенные ранее токены пользователя (подтверждение или отклонение админа).
+     */
+    public void revokeUser(Long userId) {
+        long now = System.currentTimeMillis();
+        // Токены, выпущенные до отзыва более срока жизни назад, уже истекли
+        revokedAt.values().removeIf(revoked -> revoked + jwtExpiration < now);
+        revokedAt.put(userId, now);
+        synchronized (entries) {
+            entries.values().removeIf(entry -> userId.equals(entry.principal().getUserId()));
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+
+    private record Entry(CustomUserDetails principal, long issuedAt, long expiresAt) {
+    }
+}
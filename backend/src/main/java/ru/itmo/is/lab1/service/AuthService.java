@@ -17,6 +17,7 @@ import ru.itmo.is.lab1.entity.User;
 import ru.itmo.is.lab1.repository.UserRepository;
 import ru.itmo.is.lab1.security.CustomUserDetails;
 import ru.itmo.is.lab1.security.JwtService;
+import ru.itmo.is.lab1.security.VerifiedTokenCache;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -29,6 +30,7 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final VerifiedTokenCache verifiedTokenCache;
 
     @Transactional
     public UserDTO register(RegisterRequest request) {
@@ -101,6 +103,8 @@ public class AuthService {
         
         user.setApproved(true);
         User savedUser = userRepository.save(user);
+        // Ранее выпущенные токены содержат старый статус подтверждения
+        verifiedTokenCache.revokeUser(userId);
         return toDTO(savedUser);
     }
 
@@ -114,6 +118,7 @@ public class AuthService {
         }
         
         userRepository.delete(user);
+        verifiedTokenCache.revokeUser(userId);
     }
 
     private UserDTO toDTO(User user) {
@@ -0,0 +1,403 @@
+package ru.itmo.is.lab1.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Межузловая инвалидация L2 кэша через PostgreSQL LISTEN/NOTIFY.
+ *
+ * Изменённые в транзакции сущности с L2 кэшем собираются слушателями событий Hibernate
+ * и перед коммитом отправляются через pg_notify в той же транзакции: PostgreSQL доставляет
+ * уведомление только после коммита, а при откате отбрасывает. Остальные узлы получают
+ * его на выделенном соединении (вне пула) и вытесняют указанные записи и регионы результатов
+ * запросов. Свои уведомления узел пропускает: его кэш Hibernate обновляет сам.
+ *
+ * Сообщение: {@code <узел>;<сущность>;<id через запятую>}. {@code *} вместо id - вытеснить
+ * весь регион, пустой список - только результаты запросов (новые записи).
+ * После переподключения слушателя уведомления за время разрыва потеряны,
+ * поэтому вытесняются все регионы.
+ *
+ * Те же изменения получают локальные {@link Listener} (кэши поверх L2, например
+ * {@link QueryResultCache}): после коммита на этом узле и при получении уведомления от другого.
+ * Сбор изменений и локальные слушатели работают и при отключённой межузловой рассылке
+ * (cache.invalidation.enabled=false).
+ */
+@Component
+@Slf4j
+public class CacheInvalidationBus implements PostInsertEventListener, PostUpdateEventListener,
+        PostDeleteEventListener {
+
+    /**
+     * Ограничение PostgreSQL на размер payload - 8000 байт, оставляем запас.
+     */
+    private static final int MAX_PAYLOAD_LENGTH = 7000;
+
+    private static final String ALL_IDS = "*";
+
+    /**
+     * Получатель изменений кэшируемых сущностей.
+     */
+    public interface Listener {
+
+        /**
+         * Изменены записи сущности entityName (корневое имя). ids == null - любые записи,
+         * пустой набор - только добавлены новые.
+         */
+        void entitiesChanged(String entityName, Set<Object> ids);
+
+        /**
+         * Изменения могли быть пропущены (переподключение слушателя): устарело всё.
+         */
+        void allChanged();
+    }
+
+    private final SessionFactoryImplementor sessionFactory;
+    private final DataSourceProperties dataSourceProperties;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * Изменения открытых транзакций: сессия -> сущность -> id (null - весь регион).
+     */
+    private final Map<SharedSessionContractImplementor, Map<String, Set<Object>>> pending =
+            new ConcurrentHashMap<>();
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private final Counter sentCounter;
+    private final Counter receivedCounter;
+    private final Counter reconnectCounter;
+    private final boolean enabled;
+
+    @Value("${cache.invalidation.channel:l2_cache_invalidation}")
+    private String channel;
+
+    /**
+     * Больше id одной сущности в транзакции - вытесняется весь регион.
+     */
+    @Value("${cache.invalidation.max-ids:1000}")
+    private int maxIds;
+
+    @Value("${cache.invalidation.poll-timeout-ms:1000}")
+    private int pollTimeoutMs;
+
+    @Value("${cache.invalidation.reconnect-delay-ms:5000}")
+    private long reconnectDelayMs;
+
+    private volatile boolean running;
+    private volatile Connection listenerConnection;
+
+    public CacheInvalidationBus(EntityManagerFactory entityManagerFactory,
+                                DataSourceProperties dataSourceProperties,
+                                MeterRegistry meterRegistry,
+                                @Value("${cache.invalidation.enabled:true}") boolean enabled) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.dataSourceProperties = dataSourceProperties;
+        this.enabled = enabled;
+
+        this.sentCounter = Counter.builder("cache.invalidation.sent")
+                .description("Отправленные уведомления об изменении кэшируемых сущностей")
+                .register(meterRegistry);
+        this.receivedCounter = Counter.builder("cache.invalidation.received")
+                .description("Применённые уведомления других узлов")
+                .register(meterRegistry);
+        this.reconnectCounter = Counter.builder("cache.invalidation.reconnects")
+                .description("Переподключения слушателя с полным вытеснением кэша")
+                .register(meterRegistry);
+
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Межузловая инвалидация L2 кэша отключена");
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::listen, "cache-invalidation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void stop() {
+        running = false;
+        closeListenerConnection();
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        // Новую запись нет в кэше других узлов, но устарели результаты их запросов
+        record(event.getSession(), event.getPersister(), null);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        record(event.getSession(), event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        record(event.getSession(), event.getPersister(), event.getId());
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    /**
+     * Регистрирует изменения, которые Hibernate не видит как события сущностей
+     * (нативные DML запросы). Вызывается внутри транзакции, выполнившей изменение.
+     */
+    public void entitiesChanged(SessionImplementor session, String entityName, Collection<?> ids) {
+        if (!(session instanceof EventSource eventSource)) {
+            return;
+        }
+        Map<String, Set<Object>> changes = changesOf(eventSource);
+        for (Object id : ids) {
+            addChange(changes, entityName, id);
+        }
+    }
+
+    private void record(EventSource session, EntityPersister persister, Object id) {
+        if (!persister.canWriteToCache()) {
+            return;
+        }
+        Map<String, Set<Object>> changes = changesOf(session);
+        if (id == null) {
+            // Уже записанный null (весь регион) не заменяется
+            if (!changes.containsKey(persister.getRootEntityName())) {
+                changes.put(persister.getRootEntityName(), new HashSet<>());
+            }
+        } else {
+            addChange(changes, persister.getRootEntityName(), id);
+        }
+    }
+
+    private void addChange(Map<String, Set<Object>> changes, String entityName, Object id) {
+        if (changes.containsKey(entityName) && changes.get(entityName) == null) {
+            return;
+        }
+        Set<Object> ids = changes.computeIfAbsent(entityName, name -> new HashSet<>());
+        // Нечисловые id в сообщение не кодируются, а слишком длинный список заменяется вытеснением региона
+        if (!(id instanceof Long || id instanceof Integer) || ids.size() >= maxIds) {
+            changes.put(entityName, null);
+        } else {
+            ids.add(id);
+        }
+    }
+
+    /**
+     * Изменения текущей транзакции сессии. При первом изменении регистрирует отправку перед коммитом
+     * (после финального flush) и уведомление локальных слушателей после успешного коммита.
+     */
+    private Map<String, Set<Object>> changesOf(EventSource session) {
+        return pending.computeIfAbsent(session, key -> {
+            session.getActionQueue().registerProcess(
+                    (BeforeTransactionCompletionProcess) this::publish);
+            session.getActionQueue().registerProcess(
+                    (AfterTransactionCompletionProcess) (success, completed) -> {
+                        Map<String, Set<Object>> changes = pending.remove(completed);
+                        if (success && changes != null) {
+                            changes.forEach(this::notifyListeners);
+                        }
+                    });
+            return new LinkedHashMap<>();
+        });
+    }
+
+    private void publish(SessionImplementor session) {
+        Map<String, Set<Object>> changes = pending.get(session);
+        if (!enabled || changes == null || changes.isEmpty()) {
+            return;
+        }
+        List<String> messages = encode(changes);
+        session.doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+                for (String message : messages) {
+                    statement.setString(1, channel);
+                    statement.setString(2, message);
+                    statement.executeQuery().close();
+                }
+            }
+        });
+        sentCounter.increment(messages.size());
+    }
+
+    private List<String> encode(Map<String, Set<Object>> changes) {
+        List<String> messages = new ArrayList<>();
+        for (Map.Entry<String, Set<Object>> change : changes.entrySet()) {
+            String header = nodeId + ";" + change.getKey() + ";";
+            if (change.getValue() == null) {
+                messages.add(header + ALL_IDS);
+                continue;
+            }
+            StringBuilder message = new StringBuilder(header);
+            for (Object id : change.getValue()) {
+                String value = id.toString();
+                if (message.length() + value.length() + 1 > MAX_PAYLOAD_LENGTH) {
+                    messages.add(message.toString());
+                    message = new StringBuilder(header);
+                }
+                if (message.length() > header.length()) {
+                    message.append(',');
+                }
+                message.append(value);
+            }
+            messages.add(message.toString());
+        }
+        return messages;
+    }
+
+    private void listen() {
+        boolean reconnect = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword())) {
+                listenerConnection = connection;
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                if (reconnect) {
+                    // Уведомления, отправленные во время разрыва, потеряны
+                    sessionFactory.getCache().evictAllRegions();
+                    listeners.forEach(Listener::allChanged);
+                    reconnectCounter.increment();
+                    log.warn("Слушатель инвалидации кэша переподключён, L2 кэш очищен");
+                } else {
+                    log.info("Слушатель инвалидации L2 кэша запущен: канал {}, узел {}", channel, nodeId);
+                }
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            apply(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    break;
+                }
+                log.warn("Соединение слушателя инвалидации кэша потеряно, повтор через {} мс: {}",
+                        reconnectDelayMs, e.getMessage());
+                reconnect = true;
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            } finally {
+                listenerConnection = null;
+            }
+        }
+    }
+
+    private void apply(String payload) {
+        String[] parts = payload.split(";", 3);
+        if (parts.length != 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        String entityName = parts[1];
+        String ids = parts[2];
+        try {
+            Cache cache = sessionFactory.getCache();
+            Set<Object> changedIds = null;
+            if (ALL_IDS.equals(ids)) {
+                cache.evictEntityData(entityName);
+            } else {
+                changedIds = new HashSet<>();
+                for (String id : ids.isEmpty() ? new String[0] : ids.split(",")) {
+                    Long changedId = Long.valueOf(id);
+                    changedIds.add(changedId);
+                    cache.evictEntityData(entityName, changedId);
+                }
+            }
+            // Метки времени обновлений таблиц локальны, поэтому результаты запросов узел проверить не может
+            cache.evictQueryRegions();
+            notifyListeners(entityName, changedIds);
+            receivedCounter.increment();
+            log.debug("Инвалидация от узла {}: {} [{}]", parts[0], entityName, ids);
+        } catch (RuntimeException e) {
+            log.warn("Не удалось применить инвалидацию кэша {}: {}", payload, e.getMessage());
+        }
+    }
+
+    private void notifyListeners(String entityName, Set<Object> ids) {
+        for (Listener listener : listeners) {
+            try {
+                listener.entitiesChanged(entityName, ids);
+            } catch (RuntimeException e) {
+                log.warn("Ошибка слушателя инвалидации для {}: {}", entityName, e.getMessage());
+            }
+        }
+    }
+
+    private void closeListenerConnection() {
+        Connection connection = listenerConnection;
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Ошибка закрытия соединения слушателя: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package ru.itmo.is.lab1.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.ehcache.config.ResourcePools;
+import org.ehcache.config.ResourceType;
+import org.ehcache.config.ResourceUnit;
+import org.ehcache.config.SizedResourcePool;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.expiry.ExpiryPolicy;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import ru.itmo.is.lab1.dto.CacheRegionStatisticsDTO;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Статистика по регионам L2 кэша и изменение их размера без перезапуска.
+ *
+ * Попадания, промахи и записи берутся из статистики Hibernate по региону, вытеснения -
+ * из статистики JCache (включается для всех регионов при запуске), размеры уровней и TTL -
+ * из runtime-конфигурации Ehcache. Ehcache 3 позволяет на лету менять только размер heap уровня;
+ * offheap и TTL задаются в ehcache.xml. Изменения действуют до перезапуска.
+ */
+@Service
+@Slf4j
+public class CacheRegionService {
+
+    private final Statistics statistics;
+    private final CacheManager cacheManager;
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    public CacheRegionService(EntityManagerFactory entityManagerFactory) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.statistics = sessionFactory.getStatistics();
+        this.cacheManager = ((JCacheRegionFactory) sessionFactory.getCache().getRegionFactory()).getCacheManager();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void enableStatistics() {
+        for (String region : regionNames()) {
+            cacheManager.enableStatistics(region, true);
+        }
+    }
+
+    /**
+     * Статистика всех регионов сущностей и региона результатов запросов.
+     */
+    public List<CacheRegionStatisticsDTO> getRegionStatistics() {
+        List<CacheRegionStatisticsDTO> regions = new ArrayList<>();
+        for (String region : regionNames()) {
+            regions.add(getRegionStatistics(region));
+        }
+        return regions;
+    }
+
+    /**
+     * Статистика одного региона.
+     * Число записей считается обходом кэша - запрос для администратора, не для частого опроса.
+     */
+    public CacheRegionStatisticsDTO getRegionStatistics(String region) {
+        org.ehcache.Cache<?, ?> cache = ehcache(region);
+        ResourcePools pools = cache.getRuntimeConfiguration().getResourcePools();
+        SizedResourcePool heap = pools.getPoolForResource(ResourceType.Core.HEAP);
+        SizedResourcePool offheap = pools.getPoolForResource(ResourceType.Core.OFFHEAP);
+
+        long entries = 0;
+        for (Object ignored : cache) {
+            entries++;
+        }
+
+        CacheRegionStatistics regionStatistics = regionStatistics(region);
+        long hits = regionStatistics != null ? regionStatistics.getHitCount() : 0;
+        long misses = regionStatistics != null ? regionStatistics.getMissCount() : 0;
+        long puts = regionStatistics != null ? regionStatistics.getPutCount() : 0;
+
+        return new CacheRegionStatisticsDTO(
+                region,
+                entries,
+                heap.getSize(),
+                heap.getUnit().toString(),
+                offheap != null ? offheap.getSize() : null,
+                offheap != null ? offheap.getUnit().toString() : null,
+                ttlSeconds(cache),
+                hits,
+                misses,
+                puts,
+                (hits + misses) > 0 ? (double) hits / (hits + misses) * 100 : 0,
+                evictions(region)
+        );
+    }
+
+    /**
+     * Меняет размер heap уровня региона. Единица (записи или MB) остаётся той же, что в ehcache.xml.
+     */
+    public CacheRegionStatisticsDTO resizeHeap(String region, long heapSize) {
+        org.ehcache.Cache<?, ?> cache = ehcache(region);
+        SizedResourcePool heap = cache.getRuntimeConfiguration().getResourcePools()
+                .getPoolForResource(ResourceType.Core.HEAP);
+        ResourceUnit unit = heap.getUnit();
+
+        ResourcePoolsBuilder update = unit instanceof MemoryUnit memoryUnit
+                ? ResourcePoolsBuilder.newResourcePoolsBuilder().heap(heapSize, memoryUnit)
+                : ResourcePoolsBuilder.newResourcePoolsBuilder().heap(heapSize, EntryUnit.ENTRIES);
+        try {
+            cache.getRuntimeConfiguration().updateResourcePools(update.build());
+        } catch (UnsupportedOperationException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+
+        log.info("Размер heap региона {} изменён: {} -> {} {}", region, heap.getSize(), heapSize, unit);
+        return getRegionStatistics(region);
+    }
+
+    /**
+     * Регионы сущностей и результатов запросов. Регион меток времени обновлений служебный и не выводится.
+     */
+    private List<String> regionNames() {
+        Set<String> regions = new TreeSet<>(Arrays.asList(statistics.getSecondLevelCacheRegionNames()));
+        regions.remove(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME);
+        regions.add(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+        return new ArrayList<>(regions);
+    }
+
+    private CacheRegionStatistics regionStatistics(String region) {
+        try {
+            return statistics.getCacheRegionStatistics(region);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private org.ehcache.Cache<?, ?> ehcache(String region) {
+        if (!regionNames().contains(region)) {
+            throw new EntityNotFoundException("Регион кэша " + region + " не найден");
+        }
+        Cache<Object, Object> cache = cacheManager.getCache(region);
+        if (cache == null) {
+            throw new EntityNotFoundException("Регион кэша " + region + " не найден");
+        }
+        return cache.unwrap(org.ehcache.Cache.class);
+    }
+
+    private Long ttlSeconds(org.ehcache.Cache<?, ?> cache) {
+        try {
+            // Встроенные политики TTL не зависят от ключа и значения
+            Duration ttl = cache.getRuntimeConfiguration().getExpiryPolicy().getExpiryForCreation(null, null);
+            return ttl == null || ExpiryPolicy.INFINITE.equals(ttl) ? null : ttl.getSeconds();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Вытеснения из MBean статистики JCache (javax.cache:type=CacheStatistics).
+     */
+    private long evictions(String region) {
+        try {
+            Set<ObjectName> names = mBeanServer.queryNames(
+                    new ObjectName("javax.cache:type=CacheStatistics,Cache=" + region + ",*"), null);
+            if (names.isEmpty()) {
+                return -1;
+            }
+            return (Long) mBeanServer.getAttribute(names.iterator().next(), "CacheEvictions");
+        } catch (Exception e) {
+            log.debug("Статистика JCache для региона {} недоступна: {}", region, e.getMessage());
+            return -1;
+        }
+    }
+}
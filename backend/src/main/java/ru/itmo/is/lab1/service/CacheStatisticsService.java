@@ -0,0 +1,137 @@
+package ru.itmo.is.lab1.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Статистика L2 JPA Cache для CacheController.
+ *
+ * Метрики по регионам (hibernate.second.level.cache.*, hibernate.query.cache.*), пула Hikari
+ * (hikaricp.connections.*) и время вызовов репозиториев (spring.data.repository.invocations)
+ * публикуются через Micrometer в /actuator/prometheus. Здесь - только сводка для администратора;
+ * вызовы репозиториев не перехватываются.
+ *
+ * При cache.statistics.enabled сводка периодически пишется в лог (cache.statistics.log-interval-seconds).
+ */
+@Service
+@Slf4j
+public class CacheStatisticsService {
+
+    private final Statistics statistics;
+
+    @Value("${cache.statistics.enabled:false}")
+    private volatile boolean statisticsEnabled;
+
+    public CacheStatisticsService(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Получает общую статистику кэша.
+     */
+    public CacheStatisticsDTO getCacheStatistics() {
+        long hits = statistics.getSecondLevelCacheHitCount();
+        long misses = statistics.getSecondLevelCacheMissCount();
+        long puts = statistics.getSecondLevelCachePutCount();
+
+        return new CacheStatisticsDTO(
+                hits,
+                misses,
+                puts,
+                hitRatio(hits, misses),
+                statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(),
+                statistics.getQueryCachePutCount(),
+                statisticsEnabled
+        );
+    }
+
+    /**
+     * Периодический вывод сводки в лог.
+     */
+    @Scheduled(fixedDelayString = "${cache.statistics.log-interval-seconds:60}",
+               initialDelayString = "${cache.statistics.log-interval-seconds:60}",
+               timeUnit = TimeUnit.SECONDS)
+    public void logPeriodically() {
+        if (statisticsEnabled) {
+            logFullStatistics();
+        }
+    }
+
+    /**
+     * Выводит полную статистику кэша в лог.
+     */
+    public void logFullStatistics() {
+        long hits = statistics.getSecondLevelCacheHitCount();
+        long misses = statistics.getSecondLevelCacheMissCount();
+
+        log.info("=== L2 JPA Cache Statistics ===");
+        log.info("Second Level Cache:");
+        log.info("  - Hits: {}", hits);
+        log.info("  - Misses: {}", misses);
+        log.info("  - Puts: {}", statistics.getSecondLevelCachePutCount());
+        log.info("  - Hit Ratio: {}%", String.format("%.2f", hitRatio(hits, misses)));
+
+        log.info("Query Cache:");
+        log.info("  - Hits: {}", statistics.getQueryCacheHitCount());
+        log.info("  - Misses: {}", statistics.getQueryCacheMissCount());
+        log.info("  - Puts: {}", statistics.getQueryCachePutCount());
+
+        log.info("General:");
+        log.info("  - Queries Executed: {}", statistics.getQueryExecutionCount());
+        log.info("  - Entities Loaded: {}", statistics.getEntityLoadCount());
+        log.info("  - Entities Inserted: {}", statistics.getEntityInsertCount());
+        log.info("  - Entities Updated: {}", statistics.getEntityUpdateCount());
+        log.info("  - Entities Deleted: {}", statistics.getEntityDeleteCount());
+        log.info("================================");
+    }
+
+    /**
+     * Сбрасывает статистику кэша.
+     * Счётчики Micrometer монотонны и не сбрасываются: Prometheus сам вычисляет приращения.
+     */
+    public void clearStatistics() {
+        statistics.clear();
+        log.info("Статистика кэша сброшена");
+    }
+
+    /**
+     * Проверяет, включено ли логирование статистики.
+     */
+    public boolean isStatisticsEnabled() {
+        return statisticsEnabled;
+    }
+
+    /**
+     * Включает/отключает периодическое логирование статистики.
+     */
+    public void setStatisticsEnabled(boolean enabled) {
+        this.statisticsEnabled = enabled;
+        log.info("Логирование статистики кэша: {}", enabled ? "включено" : "отключено");
+    }
+
+    private static double hitRatio(long hits, long misses) {
+        return (hits + misses) > 0 ? (double) hits / (hits + misses) * 100 : 0;
+    }
+
+    /**
+     * DTO для передачи статистики кэша.
+     */
+    public record CacheStatisticsDTO(
+            long secondLevelHits,
+            long secondLevelMisses,
+            long secondLevelPuts,
+            double secondLevelHitRatio,
+            long queryHits,
+            long queryMisses,
+            long queryPuts,
+            boolean loggingEnabled
+    ) {}
+}
@@ -0,0 +1,23 @@
+package ru.itmo.is.lab1.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Состояние прогрева L2 кэша (health-компонент cacheWarmup).
+ * Входит в группу readiness: пока прогрев не закончен, экземпляр не получает трафик.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheWarmupHealthIndicator implements HealthIndicator {
+
+    private final CacheWarmupService cacheWarmupService;
+
+    @Override
+    public Health health() {
+        Health.Builder builder = cacheWarmupService.isFinished() ? Health.up() : Health.outOfService();
+        return builder.withDetails(cacheWarmupService.getProgress()).build();
+    }
+}
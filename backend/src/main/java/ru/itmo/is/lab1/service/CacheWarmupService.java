@@ -0,0 +1,244 @@
+package ru.itmo.is.lab1.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.itmo.is.lab1.repository.OrganizationRepository;
+import ru.itmo.is.lab1.repository.WorkerRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Прогрев L2 кэша после запуска: первые страницы работников (вместе с их организациями,
+ * персонами и координатами) и организации - все или те, у которых недавно добавлялись работники.
+ *
+ * Загрузка идёт пачками в пуле из cache.warmup.parallelism потоков и ограничена временем
+ * (timeout-ms) и долей занятой heap памяти (max-heap-usage-percent): при выходе за бюджет
+ * оставшиеся пачки пропускаются. Пока прогрев идёт, {@link CacheWarmupHealthIndicator}
+ * держит readiness в OUT_OF_SERVICE; после завершения (в том числе досрочного) - UP.
+ */
+@Service
+@Slf4j
+public class CacheWarmupService {
+
+    public enum State { DISABLED, PENDING, RUNNING, COMPLETED, STOPPED, FAILED }
+
+    private final WorkerService workerService;
+    private final OrganizationRepository organizationRepository;
+    private final WorkerRepository workerRepository;
+    private final MapperService mapperService;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Value("${cache.warmup.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * all - все организации, recent - с недавно добавленными работниками, none - без организаций.
+     */
+    @Value("${cache.warmup.organizations:all}")
+    private String organizationsMode;
+
+    @Value("${cache.warmup.organization-limit:1000}")
+    private int organizationLimit;
+
+    @Value("${cache.warmup.worker-pages:5}")
+    private int workerPages;
+
+    /**
+     * Размер страницы - как у GET /api/workers по умолчанию, чтобы прогреть те же записи.
+     */
+    @Value("${cache.warmup.worker-page-size:10}")
+    private int workerPageSize;
+
+    @Value("${cache.warmup.batch-size:200}")
+    private int batchSize;
+
+    @Value("${cache.warmup.parallelism:4}")
+    private int parallelism;
+
+    @Value("${cache.warmup.timeout-ms:30000}")
+    private long timeoutMs;
+
+    @Value("${cache.warmup.max-heap-usage-percent:80}")
+    private int maxHeapUsagePercent;
+
+    private volatile State state = State.PENDING;
+    private volatile String stopReason;
+    private volatile int organizationsTotal;
+    private volatile long durationMs;
+    private final AtomicInteger organizationsLoaded = new AtomicInteger();
+    private final AtomicInteger workerPagesLoaded = new AtomicInteger();
+
+    public CacheWarmupService(WorkerService workerService,
+                              OrganizationRepository organizationRepository,
+                              WorkerRepository workerRepository,
+                              MapperService mapperService,
+                              PlatformTransactionManager transactionManager) {
+        this.workerService = workerService;
+        this.organizationRepository = organizationRepository;
+        this.workerRepository = workerRepository;
+        this.mapperService = mapperService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            state = State.DISABLED;
+            return;
+        }
+        Thread thread = new Thread(this::warmUp, "cache-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isFinished() {
+        return state != State.PENDING && state != State.RUNNING;
+    }
+
+    /**
+     * Прогресс прогрева для health endpoint.
+     */
+    public Map<String, Object> getProgress() {
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("state", state);
+        progress.put("workerPages", workerPagesLoaded.get() + "/" + (enabled ? workerPages : 0));
+        progress.put("organizations", organizationsLoaded.get() + "/" + organizationsTotal);
+        if (stopReason != null) {
+            progress.put("stopReason", stopReason);
+        }
+        if (isFinished() && state != State.DISABLED) {
+            progress.put("durationMs", durationMs);
+        }
+        return progress;
+    }
+
+    private void warmUp() {
+        state = State.RUNNING;
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            // Сначала страницы работников: GET /api/workers - самый нагруженный запрос
+            for (int page = 0; page < workerPages; page++) {
+                int pageNumber = page;
+                tasks.add(() -> {
+                    if (withinBudget(deadline)) {
+                        workerService.getAll(PageRequest.of(pageNumber, workerPageSize), null, null, null);
+                        workerPagesLoaded.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+
+            List<Long> organizationIds = organizationIds();
+            organizationsTotal = organizationIds.size();
+            for (int from = 0; from < organizationIds.size(); from += batchSize) {
+                List<Long> batch = organizationIds.subList(from, Math.min(from + batchSize, organizationIds.size()));
+                tasks.add(() -> {
+                    if (withinBudget(deadline)) {
+                        loadOrganizations(batch);
+                        organizationsLoaded.addAndGet(batch.size());
+                        log.debug("Прогрев кэша: организаций {}/{}", organizationsLoaded.get(), organizationsTotal);
+                    }
+                    return null;
+                });
+            }
+
+            // Невыполненные к дедлайну задачи отменяются
+            List<Future<Void>> futures = pool.invokeAll(tasks, Math.max(deadline - System.nanoTime(), 0),
+                    TimeUnit.NANOSECONDS);
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (CancellationException e) {
+                    stop("превышено время прогрева " + timeoutMs + " мс");
+                } catch (ExecutionException e) {
+                    log.warn("Ошибка пачки прогрева кэша: {}", e.getCause().getMessage());
+                }
+            }
+            state = stopReason == null ? State.COMPLETED : State.STOPPED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stop("прогрев прерван");
+            state = State.STOPPED;
+        } catch (Exception e) {
+            log.error("Ошибка прогрева кэша: ", e);
+            stopReason = e.getMessage();
+            state = State.FAILED;
+        } finally {
+            pool.shutdownNow();
+            durationMs = Duration.ofNanos(System.nanoTime() - startedAt).toMillis();
+            log.info("Прогрев L2 кэша: {} за {} мс, страниц работников {}/{}, организаций {}/{}{}",
+                    state, durationMs, workerPagesLoaded.get(), workerPages,
+                    organizationsLoaded.get(), organizationsTotal,
+                    stopReason != null ? " (" + stopReason + ")" : "");
+        }
+    }
+
+    private List<Long> organizationIds() {
+        PageRequest limit = PageRequest.of(0, organizationLimit);
+        return switch (organizationsMode) {
+            case "all" -> organizationRepository.findAllIds(limit);
+            case "recent" -> workerRepository.findRecentOrganizationIds(limit);
+            case "none" -> List.of();
+            default -> throw new IllegalArgumentException(
+                    "cache.warmup.organizations: ожидается all, recent или none, получено " + organizationsMode);
+        };
+    }
+
+    /**
+     * Загружает организации вместе с адресами; загруженные сущности попадают в L2 кэш.
+     */
+    private void loadOrganizations(List<Long> ids) {
+        readOnlyTransaction.executeWithoutResult(status ->
+                organizationRepository.findAllById(ids).forEach(mapperService::toDTO));
+    }
+
+    private boolean withinBudget(long deadline) {
+        if (stopReason != null) {
+            return false;
+        }
+        if (System.nanoTime() > deadline) {
+            stop("превышено время прогрева " + timeoutMs + " мс");
+            return false;
+        }
+        Runtime runtime = Runtime.getRuntime();
+        long usedPercent = (runtime.totalMemory() - runtime.freeMemory()) * 100 / runtime.maxMemory();
+        if (usedPercent > maxHeapUsagePercent) {
+            stop("занято " + usedPercent + "% heap (лимит " + maxHeapUsagePercent + "%)");
+            return false;
+        }
+        return true;
+    }
+
+    private synchronized void stop(String reason) {
+        if (stopReason == null) {
+            stopReason = reason;
+            log.warn("Прогрев кэша остановлен: {}", reason);
+        }
+    }
+}
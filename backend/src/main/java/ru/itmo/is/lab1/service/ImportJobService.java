@@ -0,0 +1,106 @@
+package ru.itmo.is.lab1.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import ru.itmo.is.lab1.dto.ImportHistoryDTO;
+import ru.itmo.is.lab1.entity.ImportMode;
+import ru.itmo.is.lab1.service.ImportService.ImportJob;
+
+/**
+ * Сервис асинхронных заданий импорта.
+ *
+ * В потоке HTTP-запроса только создаётся запись истории (IN_PROGRESS) и файл загружается
+ * в pending директорию MinIO. Разбор, валидация и сохранение выполняются в ограниченном
+ * пуле {@code importExecutor}, прогресс публикуется через WebSocket в /topic/imports/{id}.
+ * В режиме CHUNKED неуспешный импорт можно продолжить с контрольной точки ({@link #resume}).
+ */
+@Service
+@Slf4j
+public class ImportJobService {
+
+    private final ImportService importService;
+    private final MinioService minioService;
+    private final ImportRetryPolicy retryPolicy;
+    private final ThreadPoolTaskExecutor importExecutor;
+
+    public ImportJobService(ImportService importService,
+                            MinioService minioService,
+                            ImportRetryPolicy retryPolicy,
+                            @Qualifier("importExecutor") ThreadPoolTaskExecutor importExecutor) {
+        this.importService = importService;
+        this.minioService = minioService;
+        this.retryPolicy = retryPolicy;
+        this.importExecutor = importExecutor;
+    }
+
+    /**
+     * Ставит импорт в очередь и сразу возвращает запись истории с ID задания.
+     */
+    public ImportHistoryDTO submit(MultipartFile file, Long userId, ImportMode mode) {
+        ImportJob job;
+        try {
+            job = importService.prepareAsyncImport(file, userId, mode);
+        } catch (Exception e) {
+            log.error("Ошибка подготовки асинхронного импорта: ", e);
+            throw new RuntimeException("Ошибка импорта: " + e.getMessage(), e);
+        }
+
+        enqueue(job);
+        log.info("Импорт {} ({}) поставлен в очередь", job.importId(), mode);
+        return job.history();
+    }
+
+    /**
+     * Ставит в очередь продолжение неуспешного импорта CHUNKED с его контрольной точки.
+     */
+    public ImportHistoryDTO resume(Long importId, Long userId, boolean isAdmin) {
+        ImportJob job = importService.prepareResume(importId, userId, isAdmin);
+        enqueue(job);
+        log.info("Продолжение импорта {} поставлено в очередь", importId);
+        return job.history();
+    }
+
+    private void enqueue(ImportJob job) {
+        try {
+            importExecutor.execute(() -> run(job));
+        } catch (TaskRejectedException e) {
+            log.warn("Очередь импорта переполнена, задание {} отклонено", job.importId());
+            discardPendingUpload(job);
+            importService.markImportFailed(job.importId(), "Очередь импорта переполнена");
+            throw new RuntimeException("Очередь импорта переполнена, повторите попытку позже", e);
+        }
+    }
+
+    private void run(ImportJob job) {
+        try {
+            log.info("Запуск асинхронного импорта {}", job.importId());
+            retryPolicy.execute("Импорт " + job.importId(), () -> {
+                if (job.mode() == ImportMode.CHUNKED) {
+                    // Каждая попытка продолжает с последней закоммиченной контрольной точки
+                    importService.runChunkedImport(job.importId());
+                } else {
+                    importService.runAsyncImport(job);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Ошибка асинхронного импорта {}: ", job.importId(), e);
+            discardPendingUpload(job);
+            importService.markImportFailed(job.importId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Удаляет pending файл импорта ATOMIC. Файл импорта CHUNKED уже в постоянном хранилище
+     * и сохраняется для продолжения.
+     */
+    private void discardPendingUpload(ImportJob job) {
+        if (job.mode() != ImportMode.CHUNKED) {
+            minioService.rollbackUpload(job.pendingObjectName());
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package ru.itmo.is.lab1.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Ограниченный повтор транзакции импорта при временных ошибках БД:
+ * сбой сериализации (SQLSTATE 40001), взаимоблокировка (40P01) и т.п.
+ *
+ * Каждая попытка выполняется в новой транзакции, поэтому политика вызывается
+ * снаружи транзакционного метода.
+ */
+@Component
+@Slf4j
+public class ImportRetryPolicy {
+
+    private static final String SERIALIZATION_FAILURE = "40001";
+    private static final String DEADLOCK_DETECTED = "40P01";
+
+    @Value("${import.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${import.retry.backoff-ms:100}")
+    private long backoffMs;
+
+    /**
+     * Выполняет действие, повторяя его при временных ошибках не более max-attempts раз.
+     * Проверяемые исключения оборачиваются в RuntimeException.
+     */
+    public <T> T execute(String operation, Callable<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.call();
+            } catch (Exception e) {
+                if (attempt >= maxAttempts || !isTransient(e)) {
+                    throw e instanceof RuntimeException runtimeException
+                            ? runtimeException
+                            : new RuntimeException(e.getMessage(), e);
+                }
+                log.warn("{}: временная ошибка БД (попытка {} из {}), повтор: {}",
+                        operation, attempt, maxAttempts, e.getMessage());
+                sleepBeforeRetry(attempt);
+            }
+        }
+    }
+
+    /**
+     * Ищет в цепочке причин временную ошибку доступа к данным.
+     */
+    static boolean isTransient(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException) {
+                return true;
+            }
+            if (cause instanceof SQLException sqlException) {
+                String sqlState = sqlException.getSQLState();
+                if (SERIALIZATION_FAILURE.equals(sqlState) || DEADLOCK_DETECTED.equals(sqlState)) {
+                    return true;
+                }
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Экспоненциальная задержка со случайной добавкой, чтобы конфликтующие импорты
+     * не повторялись синхронно.
+     */
+    private void sleepBeforeRetry(int attempt) {
+        long delay = backoffMs * (1L << (attempt - 1));
+        delay += ThreadLocalRandom.current().nextLong(backoffMs + 1);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Повтор импорта прерван", e);
+        }
+    }
+}
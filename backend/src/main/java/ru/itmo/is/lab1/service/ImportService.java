@@ -1,22 +1,32 @@
 package ru.itmo.is.lab1.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 import ru.itmo.is.lab1.dto.ImportHistoryDTO;
+import ru.itmo.is.lab1.dto.ImportProgressDTO;
 import ru.itmo.is.lab1.dto.ImportResultDTO;
 import ru.itmo.is.lab1.dto.PageResponse;
 import ru.itmo.is.lab1.dto.WorkerDTO;
@@ -25,10 +35,14 @@ import ru.itmo.is.lab1.repository.ImportHistoryRepository;
 import ru.itmo.is.lab1.repository.OrganizationRepository;
 import ru.itmo.is.lab1.repository.UserRepository;
 import ru.itmo.is.lab1.repository.WorkerRepository;
+import ru.itmo.is.lab1.service.WorkerValidationService.ImportRow;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -41,8 +55,12 @@ import java.util.stream.Collectors;
  * Фазы двухфазного коммита:
  * 1. PREPARE: Загрузка файла в pending директорию MinIO + начало DB транзакции
  * 2. COMMIT/ROLLBACK: 
- *    - При успехе: файл перемещается из pending, DB транзакция коммитится
+ *    - При успехе: DB транзакция коммитится вместе с задачей переноса в outbox,
+ *      после чего файл перемещается из pending пулом {@link StorageCommitOutbox}
  *    - При ошибке: pending файл удаляется, DB транзакция откатывается
+ *
+ * Транзакции импорта выполняются на READ COMMITTED: пересекающиеся по ключам уникальности
+ * импорты упорядочиваются блокировками {@link UniquenessLockManager}, непересекающиеся идут параллельно.
  */
 @Service
 @RequiredArgsConstructor
@@ -57,31 +75,67 @@ public class ImportService {
     private final WorkerValidationService validationService;
     private final SimpMessagingTemplate messagingTemplate;
     private final MinioService minioService;
+    private final StorageCommitOutbox storageCommitOutbox;
+    private final WorkerEventPublisher eventPublisher;
+    private final UniquenessLockManager uniquenessLockManager;
+    private final PlatformTransactionManager transactionManager;
+    private final RatingSumTracker ratingSumTracker;
 
     @PersistenceContext
     private EntityManager entityManager;
 
+    /**
+     * Максимальное количество работников, возвращаемых в ответе на импорт.
+     * Полный список не накапливается, чтобы потребление памяти не зависело от размера файла.
+     */
+    private static final int RESULT_PREVIEW_LIMIT = 100;
+
+    /**
+     * Максимальное количество ошибок валидации, попадающих в сообщение об ошибке импорта.
+     */
+    private static final int MAX_REPORTED_ERRORS = 10;
+
+    /**
+     * Длина колонки import_history.error_message.
+     */
+    private static final int MAX_ERROR_MESSAGE_LENGTH = 2000;
+
     private final ObjectMapper objectMapper = new ObjectMapper()
             .registerModule(new JavaTimeModule());
 
+    private final ObjectReader workerReader = objectMapper.readerFor(WorkerDTO.class);
+
+    /**
+     * Размер пачки для flush()/clear() контекста персистентности.
+     * Совпадает с hibernate.jdbc.batch_size, чтобы каждый flush уходил одним JDBC-батчем.
+     */
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    /**
+     * Количество строк между коммитами в режиме CHUNKED.
+     */
+    @Value("${import.chunked.commit-interval:1000}")
+    private int commitInterval;
+
     /**
      * Импортирует работников из JSON файла с двухфазным коммитом.
      * 
      * Порядок операций (Two-Phase Commit):
      * 1. PREPARE Phase:
-     *    a) Загружаем файл в MinIO (pending директорию)
+     *    a) Загружаем файл в MinIO (pending директорию) — потоково, одновременно с разбором
      *    b) Парсим и валидируем данные
      *    c) Сохраняем записи в БД (в рамках транзакции)
      * 
      * 2. COMMIT Phase (при успехе всех операций):
-     *    a) Коммитим транзакцию БД
-     *    b) Перемещаем файл из pending в постоянное хранилище
+     *    a) Коммитим транзакцию БД (вместе с задачей переноса в outbox)
+     *    b) Перемещаем файл из pending в постоянное хранилище (асинхронно, с повторами)
      * 
      * 3. ROLLBACK Phase (при любой ошибке):
      *    a) Откатываем транзакцию БД
      *    b) Удаляем pending файл из MinIO
      */
-    @Transactional(isolation = Isolation.SERIALIZABLE)
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public ImportResultDTO importWorkers(MultipartFile file, Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("Пользователь не найден"));
@@ -96,95 +150,36 @@ public class ImportService {
         String pendingObjectName = null;
 
         try {
-            // 1.1 Загружаем файл в MinIO (pending)
+            // 1.1 Загружаем файл в MinIO (pending) параллельно с разбором:
+            //     файл читается один раз, прочитанные байты одновременно уходят в хранилище
             log.info("Загрузка файла в MinIO (pending)...");
-            pendingObjectName = minioService.prepareUpload(file, userId);
-            log.info("Файл загружен в pending: {}", pendingObjectName);
-
-            // Сохраняем pending имя для использования при откате
-            final String finalPendingObjectName = pendingObjectName;
-
-            // 1.2 Парсим JSON файл
-            List<WorkerDTO> workerDTOs = objectMapper.readValue(
-                    file.getInputStream(),
-                    new TypeReference<List<WorkerDTO>>() {}
-            );
-
-            if (workerDTOs.isEmpty()) {
-                throw new RuntimeException("Файл не содержит записей для импорта");
-            }
-
-            // 1.3 Валидируем и сохраняем работников
-            List<Worker> savedWorkers = new ArrayList<>();
-
-            for (int i = 0; i < workerDTOs.size(); i++) {
-                final int rowNumber = i + 1;
-                WorkerDTO dto = workerDTOs.get(i);
-                
-                // Валидация бизнес-правил
-                validationService.validateWorkerForImport(dto, rowNumber);
-
-                Worker worker = mapperService.toEntity(dto);
-                worker.setId(null);
-
-                // Обработка существующей организации
-                if (worker.getOrganization() != null && worker.getOrganization().getId() != null) {
-                    Organization existingOrg = organizationRepository.findById(worker.getOrganization().getId())
-                            .orElseThrow(() -> new RuntimeException(
-                                    "Строка " + rowNumber + ": Организация с ID " + worker.getOrganization().getId() + " не найдена"));
-                    worker.setOrganization(existingOrg);
+            MinioService.StreamingUpload upload = minioService.prepareStreamingUpload(
+                    file.getOriginalFilename(), file.getContentType(), userId);
+            pendingObjectName = upload.getPendingObjectName();
+
+            // 1.2 Потоково разбираем JSON и сразу валидируем/сохраняем каждую пачку записей
+            ImportProgressDTO progress = new ImportProgressDTO(importHistory.getId());
+            List<WorkerDTO> resultDTOs = new ArrayList<>();
+
+            try (InputStream inputStream = file.getInputStream()) {
+                InputStream teed = upload.tee(inputStream);
+                try {
+                    importFromStream(teed, progress, resultDTOs);
+                    upload.complete(teed);
+                } catch (Exception e) {
+                    upload.abort();
+                    throw e;
                 }
-
-                savedWorkers.add(workerRepository.save(worker));
             }
+            log.info("Файл загружен в pending: {}", pendingObjectName);
 
-            // 1.4 Обновляем историю импорта
-            importHistory.setStatus(ImportStatus.SUCCESS);
-            importHistory.setAddedCount(savedWorkers.size());
-            importHistory.setMinioObjectName(pendingObjectName.replace("pending/", ""));
-            importHistoryRepository.save(importHistory);
-
-            // Регистрируем callback для коммита MinIO после успешного коммита БД
-            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
-                @Override
-                public void afterCommit() {
-                    try {
-                        log.info("=== 2PC COMMIT Phase ===");
-                        String finalObjectName = minioService.commitUpload(finalPendingObjectName);
-                        log.info("MinIO коммит успешен: {}", finalObjectName);
-                    } catch (Exception e) {
-                        // Логируем ошибку, но не откатываем БД 
-                        // Файл останется в pending и может быть очищен позже
-                        log.error("Ошибка коммита MinIO: {}", e.getMessage());
-                    }
-                }
-
-                @Override
-                public void afterCompletion(int status) {
-                    if (status == TransactionSynchronization.STATUS_ROLLED_BACK) {
-                        log.info("=== 2PC ROLLBACK Phase ===");
-                        minioService.rollbackUpload(finalPendingObjectName);
-                        log.info("MinIO откат выполнен");
-                    }
-                }
-            });
-
-            // Отправляем уведомления через WebSocket
-            savedWorkers.forEach(worker -> {
-                WorkerDTO result = mapperService.toDTO(worker);
-                messagingTemplate.convertAndSend("/topic/workers/created", result);
-            });
-
-            List<WorkerDTO> resultDTOs = savedWorkers.stream()
-                    .map(mapperService::toDTO)
-                    .collect(Collectors.toList());
-
-            log.info("Импорт успешно завершён. Добавлено работников: {}", savedWorkers.size());
+            // 1.4 Обновляем историю импорта и регистрируем фазу COMMIT/ROLLBACK в MinIO
+            completeImport(importHistory, pendingObjectName, progress);
 
             return new ImportResultDTO(
                     importHistory.getId(),
                     ImportStatus.SUCCESS,
-                    savedWorkers.size(),
+                    progress.getPersistedCount(),
                     null,
                     resultDTOs
             );
@@ -198,15 +193,406 @@ public class ImportService {
             }
 
             importHistory.setStatus(ImportStatus.FAILED);
-            importHistory.setErrorMessage(e.getMessage());
+            importHistory.setErrorMessage(truncateErrorMessage(e.getMessage()));
             importHistory.setAddedCount(0);
             importHistoryRepository.save(importHistory);
 
             // Откат транзакции произойдет автоматически
             throw new RuntimeException("Ошибка импорта: " + e.getMessage(), e);
+        } finally {
+            validationService.clearImportCache();
+        }
+    }
+
+    /**
+     * Подготовка асинхронного импорта (выполняется в потоке HTTP-запроса).
+     * Создаёт запись истории со статусом IN_PROGRESS и загружает файл в pending директорию MinIO,
+     * после чего запрос может завершиться: сам файл дальше читается уже из хранилища.
+     *
+     * @return подготовленное задание импорта (ID записи истории и имя pending объекта)
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public ImportJob prepareAsyncImport(MultipartFile file, Long userId, ImportMode mode) throws Exception {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("Пользователь не найден"));
+
+        ImportHistory importHistory = new ImportHistory();
+        importHistory.setUser(user);
+        importHistory.setStatus(ImportStatus.IN_PROGRESS);
+        importHistory.setFileName(file.getOriginalFilename());
+        importHistory.setMode(mode);
+        importHistory = importHistoryRepository.save(importHistory);
+
+        String pendingObjectName = minioService.prepareUpload(file, userId);
+        log.info("Асинхронный импорт {}: файл загружен в pending: {}", importHistory.getId(), pendingObjectName);
+
+        if (mode == ImportMode.CHUNKED) {
+            // Перенос в постоянное хранилище ставится в outbox вместе с коммитом записи истории:
+            // из постоянного объекта читаются и первый запуск, и продолжения с контрольной точки
+            // (runChunkedImport переносит файл сам, если outbox ещё не успел)
+            importHistory.setCheckpointRow(0);
+            importHistory.setMinioObjectName(pendingObjectName.replace("pending/", ""));
+            importHistoryRepository.save(importHistory);
+            registerUploadCompletion(pendingObjectName, null);
+        }
+
+        return new ImportJob(importHistory.getId(), pendingObjectName, mode, toDTO(importHistory));
+    }
+
+    /**
+     * Подготовка продолжения неуспешного импорта в режиме CHUNKED с контрольной точки.
+     */
+    @Transactional
+    public ImportJob prepareResume(Long importId, Long userId, boolean isAdmin) {
+        ImportHistory importHistory = importHistoryRepository.findById(importId)
+                .orElseThrow(() -> new RuntimeException("Запись импорта не найдена"));
+
+        if (!isAdmin && !importHistory.getUser().getId().equals(userId)) {
+            throw new RuntimeException("Нет доступа к этому импорту");
+        }
+        if (importHistory.getMode() != ImportMode.CHUNKED) {
+            throw new RuntimeException("Продолжить можно только импорт в режиме CHUNKED");
+        }
+        if (importHistory.getStatus() != ImportStatus.FAILED) {
+            throw new RuntimeException("Продолжить можно только неуспешный импорт");
+        }
+        if (importHistory.getMinioObjectName() == null || importHistory.getMinioObjectName().isEmpty()) {
+            throw new RuntimeException("Файл импорта не найден в хранилище");
+        }
+
+        importHistory.setStatus(ImportStatus.IN_PROGRESS);
+        importHistory.setErrorMessage(null);
+        importHistoryRepository.save(importHistory);
+        log.info("Продолжение импорта {} со строки {}", importId, importHistory.getCheckpointRow() + 1);
+
+        return new ImportJob(importId, null, ImportMode.CHUNKED, toDTO(importHistory));
+    }
+
+    /**
+     * Выполнение асинхронного импорта в фоновом потоке.
+     * Файл читается потоково из pending директории MinIO, прогресс публикуется в /topic/imports/{id}.
+     * Двухфазный коммит такой же, как в {@link #importWorkers(MultipartFile, Long)}.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED, rollbackFor = Exception.class)
+    public void runAsyncImport(ImportJob job) throws Exception {
+        ImportHistory importHistory = importHistoryRepository.findById(job.importId())
+                .orElseThrow(() -> new RuntimeException("Запись импорта не найдена"));
+
+        try {
+            ImportProgressDTO progress = new ImportProgressDTO(job.importId());
+
+            try (InputStream inputStream = minioService.getFile(job.pendingObjectName())) {
+                importFromStream(inputStream, progress, new ArrayList<>());
+            }
+
+            completeImport(importHistory, job.pendingObjectName(), progress);
+        } finally {
+            validationService.clearImportCache();
+        }
+    }
+
+    /**
+     * Импорт в режиме CHUNKED: файл читается из постоянного хранилища MinIO начиная со строки,
+     * следующей за контрольной точкой, каждые {@link #commitInterval} строк коммитятся
+     * в отдельной транзакции вместе с новой контрольной точкой.
+     * Метод не транзакционный: при ошибке откатывается только текущая порция строк.
+     */
+    public void runChunkedImport(Long importId) throws Exception {
+        ImportHistory importHistory = importHistoryRepository.findById(importId)
+                .orElseThrow(() -> new RuntimeException("Запись импорта не найдена"));
+        int checkpoint = importHistory.getCheckpointRow() != null ? importHistory.getCheckpointRow() : 0;
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+
+        ImportProgressDTO progress = new ImportProgressDTO(importId);
+        progress.setParsedCount(checkpoint);
+        progress.setValidatedCount(checkpoint);
+        progress.setPersistedCount(checkpoint);
+        List<WorkerDTO> resultDTOs = new ArrayList<>();
+
+        if (importHistory.getMinioObjectName() == null) {
+            throw new RuntimeException("Файл импорта недоступен в хранилище");
+        }
+        // Outbox переносит файл асинхронно: до чтения постоянного объекта переносим его сами
+        storageCommitOutbox.commitNow(minioService.pendingObjectName(importHistory.getMinioObjectName()));
+
+        try (InputStream inputStream = minioService.getFile(importHistory.getMinioObjectName())) {
+            readWorkerArray(inputStream, progress, checkpoint, commitInterval,
+                    rows -> transactionTemplate.executeWithoutResult(status ->
+                            commitChunk(importId, rows, progress, resultDTOs)));
+        } finally {
+            validationService.clearImportCache();
+        }
+
+        if (progress.getPersistedCount() == 0) {
+            throw new RuntimeException("Файл не содержит записей для импорта");
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            ImportHistory history = importHistoryRepository.findById(importId)
+                    .orElseThrow(() -> new RuntimeException("Запись импорта не найдена"));
+            history.setStatus(ImportStatus.SUCCESS);
+            history.setAddedCount(progress.getPersistedCount());
+            importHistoryRepository.save(history);
+        });
+
+        progress.setStatus(ImportStatus.SUCCESS);
+        publishProgress(progress);
+        log.info("Импорт {} в режиме CHUNKED завершён. Всего строк: {}", importId, progress.getPersistedCount());
+    }
+
+    /**
+     * Сохраняет порцию строк пачками по {@link #batchSize} и сдвигает контрольную точку
+     * в той же транзакции, поэтому контрольная точка всегда соответствует закоммиченным строкам.
+     * Ключи уникальности всей порции блокируются сразу и освобождаются коммитом порции.
+     */
+    private void commitChunk(Long importId, List<ImportRow> rows, ImportProgressDTO progress,
+                             List<WorkerDTO> resultDTOs) {
+        uniquenessLockManager.lock(validationService.uniquenessLockKeys(rows));
+
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            importChunk(rows.subList(from, Math.min(from + batchSize, rows.size())), progress, resultDTOs);
+        }
+
+        ImportHistory history = importHistoryRepository.findById(importId)
+                .orElseThrow(() -> new RuntimeException("Запись импорта не найдена"));
+        history.setCheckpointRow(rows.get(rows.size() - 1).rowNumber());
+        history.setAddedCount(progress.getPersistedCount());
+        importHistoryRepository.save(history);
+    }
+
+    /**
+     * Помечает асинхронный импорт как неуспешный.
+     * Выполняется в отдельной транзакции, так как транзакция самого импорта уже откачена.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void markImportFailed(Long importId, String errorMessage) {
+        importHistoryRepository.findById(importId).ifPresent(importHistory -> {
+            importHistory.setStatus(ImportStatus.FAILED);
+            if (importHistory.getMode() == ImportMode.CHUNKED) {
+                // Закоммиченные до контрольной точки строки остаются в БД
+                importHistory.setErrorMessage(truncateErrorMessage(errorMessage +
+                        " (импорт можно продолжить со строки " + (importHistory.getCheckpointRow() + 1) + ")"));
+            } else {
+                importHistory.setErrorMessage(truncateErrorMessage(errorMessage));
+                importHistory.setAddedCount(0);
+            }
+            importHistoryRepository.save(importHistory);
+        });
+
+        ImportProgressDTO progress = new ImportProgressDTO(importId);
+        progress.setStatus(ImportStatus.FAILED);
+        progress.setErrorMessage(errorMessage);
+        publishProgress(progress);
+    }
+
+    /**
+     * Получает состояние импорта (в том числе асинхронного задания) по ID записи истории.
+     */
+    @Transactional(readOnly = true)
+    public ImportHistoryDTO getImportStatus(Long historyId, Long userId, boolean isAdmin) {
+        ImportHistory history = importHistoryRepository.findById(historyId)
+                .orElseThrow(() -> new RuntimeException("Запись импорта не найдена"));
+
+        if (!isAdmin && !history.getUser().getId().equals(userId)) {
+            throw new RuntimeException("Нет доступа к этому импорту");
+        }
+
+        return toDTO(history);
+    }
+
+    /**
+     * Потоково разбирает JSON массив работников и импортирует его пачками.
+     */
+    private void importFromStream(InputStream inputStream, ImportProgressDTO progress,
+                                  List<WorkerDTO> resultDTOs) throws IOException {
+        readWorkerArray(inputStream, progress, 0, batchSize, chunk -> {
+            // Импорт идёт на READ COMMITTED: уникальность защищают блокировки на ключи пачки.
+            // Конкурирующая транзакция с теми же ключами ждёт до коммита этой и затем видит её записи;
+            // взаимоблокировку импортов с пересекающимися пачками повторяет ImportRetryPolicy
+            uniquenessLockManager.lock(validationService.uniquenessLockKeys(chunk));
+            importChunk(chunk, progress, resultDTOs);
+        });
+
+        if (progress.getPersistedCount() == 0) {
+            throw new RuntimeException("Файл не содержит записей для импорта");
+        }
+    }
+
+    /**
+     * Потоково разбирает JSON массив работников и передаёт строки обработчику порциями по chunkSize.
+     * Первые skipRows элементов пропускаются без десериализации (продолжение с контрольной точки).
+     */
+    private void readWorkerArray(InputStream inputStream, ImportProgressDTO progress, int skipRows,
+                                 int chunkSize, Consumer<List<ImportRow>> chunkHandler) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new RuntimeException("Файл должен содержать JSON массив работников");
+            }
+            // Переходим к первому элементу массива, чтобы MappingIterator читал объекты по одному
+            JsonToken token = parser.nextToken();
+            for (int skipped = 0; skipped < skipRows && token != JsonToken.END_ARRAY && token != null; skipped++) {
+                parser.skipChildren();
+                token = parser.nextToken();
+            }
+            if (token != JsonToken.END_ARRAY && token != null) {
+                importWorkerStream(workerReader.readValues(parser), progress, chunkSize, chunkHandler);
+            }
+        }
+    }
+
+    /**
+     * Фиксирует успешный импорт в истории и регистрирует фазы COMMIT/ROLLBACK для MinIO,
+     * которые выполнятся после завершения транзакции БД.
+     */
+    private void completeImport(ImportHistory importHistory, String pendingObjectName, ImportProgressDTO progress) {
+        importHistory.setStatus(ImportStatus.SUCCESS);
+        importHistory.setAddedCount(progress.getPersistedCount());
+        importHistory.setMinioObjectName(pendingObjectName.replace("pending/", ""));
+        importHistoryRepository.save(importHistory);
+
+        registerUploadCompletion(pendingObjectName, progress);
+
+        log.info("Импорт успешно завершён. Добавлено работников: {}", progress.getPersistedCount());
+    }
+
+    /**
+     * Регистрирует фазы COMMIT/ROLLBACK для MinIO, которые выполнятся после завершения транзакции БД.
+     * Фаза COMMIT ставится в outbox в текущей транзакции и выполняется пулом переноса после коммита,
+     * не задерживая ответ. Если передан прогресс, после коммита публикуется статус SUCCESS.
+     */
+    private void registerUploadCompletion(String pendingObjectName, ImportProgressDTO progress) {
+        storageCommitOutbox.enqueue(pendingObjectName);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (progress != null) {
+                    progress.setStatus(ImportStatus.SUCCESS);
+                    publishProgress(progress);
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == TransactionSynchronization.STATUS_ROLLED_BACK) {
+                    log.info("=== 2PC ROLLBACK Phase ===");
+                    minioService.rollbackUpload(pendingObjectName);
+                    log.info("MinIO откат выполнен");
+                }
+            }
+        });
+    }
+
+    /**
+     * Передаёт записи обработчику по мере чтения из файла порциями по chunkSize строк.
+     * В памяти не держится ни весь файл, ни полный список DTO — только текущая порция
+     * и первые {@link #RESULT_PREVIEW_LIMIT} сохранённых работников для ответа.
+     */
+    private void importWorkerStream(MappingIterator<WorkerDTO> iterator, ImportProgressDTO progress,
+                                    int chunkSize, Consumer<List<ImportRow>> chunkHandler) throws IOException {
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+
+        while (iterator.hasNextValue()) {
+            final int currentRow = progress.getParsedCount() + 1;
+            try {
+                chunk.add(new ImportRow(currentRow, iterator.nextValue()));
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Строка " + currentRow + ": некорректный формат записи: " + e.getOriginalMessage(), e);
+            }
+            progress.setParsedCount(currentRow);
+
+            if (chunk.size() == chunkSize) {
+                chunkHandler.accept(chunk);
+                chunk.clear();
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            chunkHandler.accept(chunk);
         }
     }
 
+    /**
+     * Валидирует и сохраняет одну пачку строк импорта.
+     */
+    private void importChunk(List<ImportRow> chunk, ImportProgressDTO progress, List<WorkerDTO> resultDTOs) {
+        // Ключи уникальности пачки уже заблокированы: importFromStream или commitChunk
+
+        // Валидация бизнес-правил для всей пачки сразу
+        Map<Integer, String> errors = validationService.validateImportChunk(chunk);
+        if (!errors.isEmpty()) {
+            throw new RuntimeException(formatRowErrors(errors));
+        }
+        progress.setValidatedCount(progress.getValidatedCount() + chunk.size());
+
+        long ratingSum = 0;
+        for (ImportRow row : chunk) {
+            Worker worker = mapperService.toEntity(row.worker());
+            worker.setId(null);
+
+            // Обработка существующей организации
+            if (worker.getOrganization() != null && worker.getOrganization().getId() != null) {
+                Organization existingOrg = organizationRepository.findById(worker.getOrganization().getId())
+                        .orElseThrow(() -> new RuntimeException(
+                                "Строка " + row.rowNumber() + ": Организация с ID " + worker.getOrganization().getId() + " не найдена"));
+                worker.setOrganization(existingOrg);
+            }
+
+            WorkerDTO result = mapperService.toDTO(workerRepository.save(worker));
+            if (result.getRating() != null) {
+                ratingSum += result.getRating();
+            }
+
+            // Уведомление уйдёт через WebSocket пачкой после коммита
+            eventPublisher.created(result);
+
+            if (resultDTOs.size() < RESULT_PREVIEW_LIMIT) {
+                resultDTOs.add(result);
+            }
+        }
+
+        // Отправляем накопленную пачку INSERT-ов и освобождаем контекст персистентности
+        entityManager.flush();
+        entityManager.clear();
+        ratingSumTracker.add(ratingSum);
+
+        progress.setPersistedCount(progress.getPersistedCount() + chunk.size());
+        publishProgress(progress);
+    }
+
+    /**
+     * Публикует прогресс импорта в /topic/imports/{id}.
+     */
+    private void publishProgress(ImportProgressDTO progress) {
+        messagingTemplate.convertAndSend("/topic/imports/" + progress.getImportId(), progress);
+    }
+
+    private String truncateErrorMessage(String errorMessage) {
+        if (errorMessage == null || errorMessage.length() <= MAX_ERROR_MESSAGE_LENGTH) {
+            return errorMessage;
+        }
+        return errorMessage.substring(0, MAX_ERROR_MESSAGE_LENGTH);
+    }
+
+    /**
+     * Формирует сообщение об ошибках валидации с номерами строк исходного файла.
+     * Количество выводимых ошибок ограничено, чтобы сообщение помещалось в историю импорта.
+     */
+    private String formatRowErrors(Map<Integer, String> errors) {
+        String message = errors.entrySet().stream()
+                .limit(MAX_REPORTED_ERRORS)
+                .map(e -> "Строка " + e.getKey() + ": " + e.getValue())
+                .collect(Collectors.joining("; "));
+
+        if (errors.size() > MAX_REPORTED_ERRORS) {
+            message += "; и ещё ошибок: " + (errors.size() - MAX_REPORTED_ERRORS);
+        }
+        return message;
+    }
+
     @Transactional(readOnly = true)
     public PageResponse<ImportHistoryDTO> getImportHistory(Long userId, boolean isAdmin, Pageable pageable) {
         Page<ImportHistory> page;
@@ -234,9 +620,11 @@ public class ImportService {
     }
 
     /**
-     * Получает файл импорта из MinIO.
+     * Проверяет доступ к файлу импорта и возвращает его имя и объект в хранилище
+     * (одним чтением записи истории).
      */
-    public InputStream getImportFile(Long historyId, Long userId, boolean isAdmin) throws Exception {
+    @Transactional(readOnly = true)
+    public ImportFile getImportFile(Long historyId, Long userId, boolean isAdmin) {
         ImportHistory history = importHistoryRepository.findById(historyId)
                 .orElseThrow(() -> new RuntimeException("Запись импорта не найдена"));
 
@@ -249,17 +637,7 @@ public class ImportService {
             throw new RuntimeException("Файл не найден в хранилище");
         }
 
-        return minioService.getFile(history.getMinioObjectName());
-    }
-
-    /**
-     * Получает имя файла из истории импорта.
-     */
-    @Transactional(readOnly = true)
-    public String getImportFileName(Long historyId) {
-        ImportHistory history = importHistoryRepository.findById(historyId)
-                .orElseThrow(() -> new RuntimeException("Запись импорта не найдена"));
-        return history.getFileName();
+        return new ImportFile(history.getFileName(), history.getMinioObjectName());
     }
 
     private ImportHistoryDTO toDTO(ImportHistory history) {
@@ -275,6 +653,19 @@ public class ImportService {
         dto.setMinioObjectName(history.getMinioObjectName());
         dto.setFileAvailable(history.getMinioObjectName() != null && 
                             !history.getMinioObjectName().isEmpty());
+        dto.setMode(history.getMode() != null ? history.getMode() : ImportMode.ATOMIC);
+        dto.setCheckpointRow(history.getCheckpointRow());
         return dto;
     }
+
+    /**
+     * Подготовленное асинхронное задание импорта.
+     * pendingObjectName - null для продолжения импорта CHUNKED, файл которого уже в постоянном хранилище.
+     */
+    public record ImportJob(Long importId, String pendingObjectName, ImportMode mode, ImportHistoryDTO history) {}
+
+    /**
+     * Файл импорта: исходное имя файла и имя объекта в хранилище.
+     */
+    public record ImportFile(String fileName, String objectName) {}
 }
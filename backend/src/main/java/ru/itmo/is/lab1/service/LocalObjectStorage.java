@@ -0,0 +1,165 @@
+package ru.itmo.is.lab1.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Хранилище в локальной файловой системе для работы на одном узле без MinIO.
+ *
+ * Объект {@code a/b/c} - файл {@code <root-dir>/a/b/c}.
+ * Запись идёт во временный файл в {@code <root-dir>/.tmp} и затем атомарно переименовывается,
+ * поэтому частично записанный файл никогда не виден под именем объекта.
+ * Перенос pending -> постоянное хранилище - одно атомарное {@link Files#move}, без копирования данных.
+ * Скачивание - {@link FileChannel#transferTo}: копирование выполняет ядро, где ОС это поддерживает.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.type", havingValue = "local")
+@Slf4j
+public class LocalObjectStorage implements ObjectStorage {
+
+    private static final String TEMP_DIR = ".tmp";
+
+    private final Path root;
+
+    private final Path tempDir;
+
+    public LocalObjectStorage(@Value("${storage.local.root-dir:./storage}") String rootDir) throws IOException {
+        this.root = Paths.get(rootDir).toAbsolutePath().normalize();
+        this.tempDir = root.resolve(TEMP_DIR);
+        Files.createDirectories(tempDir);
+        cleanTempDir();
+        log.info("Локальное хранилище файлов: {}", root);
+    }
+
+    @Override
+    public void put(String objectName, InputStream content, long size, String contentType) throws Exception {
+        Path target = resolve(objectName);
+        Path temp = Files.createTempFile(tempDir, "upload-", ".part");
+        try {
+            Files.copy(content, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.createDirectories(target.getParent());
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    @Override
+    public InputStream get(String objectName) throws Exception {
+        return Files.newInputStream(resolve(objectName));
+    }
+
+    @Override
+    public long transferTo(String objectName, long offset, long length, WritableByteChannel target) throws Exception {
+        try (FileChannel channel = FileChannel.open(resolve(objectName), StandardOpenOption.READ)) {
+            long end = Math.min(channel.size(), offset + length);
+            long position = offset;
+            while (position < end) {
+                position += channel.transferTo(position, end - position, target);
+            }
+            return position - offset;
+        }
+    }
+
+    @Override
+    public StoredObject stat(String objectName) throws Exception {
+        return toStoredObject(resolve(objectName));
+    }
+
+    @Override
+    public void move(String sourceObjectName, String targetObjectName) throws Exception {
+        Path target = resolve(targetObjectName);
+        Files.createDirectories(target.getParent());
+        Files.move(resolve(sourceObjectName), target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void delete(String objectName) throws Exception {
+        Files.deleteIfExists(resolve(objectName));
+    }
+
+    @Override
+    public List<StoredObject> list(String prefix, String startAfter, int limit) throws Exception {
+        Path dir = resolve(prefix);
+        List<StoredObject> objects = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return objects;
+        }
+        // Files.walk не упорядочивает файлы, поэтому страница отбирается после сортировки по имени
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(dir)) {
+            files = paths.filter(Files::isRegularFile)
+                    .filter(path -> startAfter == null || objectName(path).compareTo(startAfter) > 0)
+                    .sorted(Comparator.comparing(this::objectName))
+                    .limit(limit)
+                    .toList();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        for (Path file : files) {
+            objects.add(toStoredObject(file));
+        }
+        return objects;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return Files.isDirectory(root) && Files.isWritable(root);
+    }
+
+    /**
+     * Путь объекта внутри корня хранилища. Имена, выходящие за корень (например, через ".."), отклоняются.
+     */
+    private Path resolve(String objectName) {
+        Path path = root.resolve(objectName).normalize();
+        if (!path.startsWith(root) || path.equals(root) || path.startsWith(tempDir)) {
+            throw new IllegalArgumentException("Недопустимое имя объекта: " + objectName);
+        }
+        return path;
+    }
+
+    private StoredObject toStoredObject(Path path) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        String objectName = objectName(path);
+        long lastModified = attributes.lastModifiedTime().to(TimeUnit.MICROSECONDS);
+        // Объекты не перезаписываются на месте (запись - через временный файл и rename),
+        // поэтому размер и время изменения однозначно определяют содержимое
+        String etag = Long.toHexString(attributes.size()) + "-" + Long.toHexString(lastModified);
+        return new StoredObject(objectName, attributes.size(), attributes.lastModifiedTime().toInstant(), etag);
+    }
+
+    private String objectName(Path path) {
+        return root.relativize(path).toString().replace(path.getFileSystem().getSeparator(), "/");
+    }
+
+    /**
+     * Удаляет временные файлы загрузок, прерванных падением процесса.
+     */
+    private void cleanTempDir() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
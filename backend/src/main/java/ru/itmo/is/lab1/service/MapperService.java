@@ -4,6 +4,8 @@ import org.springframework.stereotype.Service;
 import ru.itmo.is.lab1.dto.*;
 import ru.itmo.is.lab1.entity.*;
 
+import java.util.Set;
+
 @Service
 public class MapperService {
 
@@ -25,6 +27,37 @@ public class MapperService {
         return dto;
     }
 
+    /**
+     * Добавляет вложенные сущности работника как зависимости записи {@link QueryResultCache}.
+     */
+    public void collectDependencies(WorkerDTO dto, Set<String> dependencies) {
+        if (dto.getCoordinates() != null) {
+            dependencies.add(QueryResultCache.dependency(Coordinates.class, dto.getCoordinates().getId()));
+        }
+        if (dto.getOrganization() != null) {
+            dependencies.add(QueryResultCache.dependency(Organization.class, dto.getOrganization().getId()));
+            collectDependencies(dto.getOrganization(), dependencies);
+        }
+        if (dto.getPerson() != null) {
+            dependencies.add(QueryResultCache.dependency(Person.class, dto.getPerson().getId()));
+            if (dto.getPerson().getLocation() != null) {
+                dependencies.add(QueryResultCache.dependency(Location.class, dto.getPerson().getLocation().getId()));
+            }
+        }
+    }
+
+    /**
+     * Добавляет адреса организации как зависимости записи {@link QueryResultCache}.
+     */
+    public void collectDependencies(OrganizationDTO dto, Set<String> dependencies) {
+        if (dto.getOfficialAddress() != null) {
+            dependencies.add(QueryResultCache.dependency(Address.class, dto.getOfficialAddress().getId()));
+        }
+        if (dto.getPostalAddress() != null) {
+            dependencies.add(QueryResultCache.dependency(Address.class, dto.getPostalAddress().getId()));
+        }
+    }
+
     public Worker toEntity(WorkerDTO dto) {
         if (dto == null) return null;
         
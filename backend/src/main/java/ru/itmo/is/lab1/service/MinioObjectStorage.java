@@ -0,0 +1,199 @@
+package ru.itmo.is.lab1.service;
+
+import io.minio.*;
+import io.minio.messages.Item;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Хранилище в MinIO (S3-совместимое).
+ *
+ * Bucket проверяется и создаётся при первом обращении, а не при создании клиента:
+ * приложение запускается и без доступного MinIO, а ошибки появляются только в операциях с файлами.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.type", havingValue = "minio", matchIfMissing = true)
+@Slf4j
+public class MinioObjectStorage implements ObjectStorage {
+
+    private final MinioClient minioClient;
+
+    @Value("${minio.bucket-name}")
+    private String bucketName;
+
+    /**
+     * Размер части multipart upload (не меньше 5MB — ограничение S3).
+     */
+    @Value("${minio.upload.part-size:10485760}")
+    private long partSize;
+
+    private volatile boolean bucketReady;
+
+    public MinioObjectStorage(MinioClient minioClient) {
+        this.minioClient = minioClient;
+    }
+
+    /**
+     * Пробует подготовить bucket после запуска; недоступность MinIO только логируется.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initBucket() {
+        try {
+            ensureBucket();
+        } catch (Exception e) {
+            log.warn("MinIO недоступен при запуске, bucket будет проверен при первой загрузке: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void put(String objectName, InputStream content, long size, String contentType) throws Exception {
+        ensureBucket();
+        minioClient.putObject(
+                PutObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(objectName)
+                        .stream(content, size, partSize)
+                        .contentType(contentType)
+                        .build()
+        );
+    }
+
+    @Override
+    public InputStream get(String objectName) throws Exception {
+        return minioClient.getObject(
+                GetObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(objectName)
+                        .build()
+        );
+    }
+
+    @Override
+    public long transferTo(String objectName, long offset, long length, WritableByteChannel target) throws Exception {
+        // Диапазон запрашивается у MinIO, поэтому по сети передаётся только он
+        try (InputStream in = minioClient.getObject(
+                GetObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(objectName)
+                        .offset(offset)
+                        .length(length)
+                        .build())) {
+            return in.transferTo(Channels.newOutputStream(target));
+        }
+    }
+
+    @Override
+    public StoredObject stat(String objectName) throws Exception {
+        StatObjectResponse stat = minioClient.statObject(
+                StatObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(objectName)
+                        .build()
+        );
+        return new StoredObject(objectName, stat.size(), stat.lastModified().toInstant(), unquote(stat.etag()));
+    }
+
+    /**
+     * S3 не умеет переименовывать: копирование и удаление исходного объекта.
+     */
+    @Override
+    public void move(String sourceObjectName, String targetObjectName) throws Exception {
+        minioClient.copyObject(
+                CopyObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(targetObjectName)
+                        .source(CopySource.builder()
+                                .bucket(bucketName)
+                                .object(sourceObjectName)
+                                .build())
+                        .build()
+        );
+        delete(sourceObjectName);
+    }
+
+    @Override
+    public void delete(String objectName) throws Exception {
+        minioClient.removeObject(
+                RemoveObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(objectName)
+                        .build()
+        );
+    }
+
+    /**
+     * Список читается лениво, поэтому число запросов ListObjects ограничено лимитом, а не размером директории.
+     */
+    @Override
+    public List<StoredObject> list(String prefix, String startAfter, int limit) throws Exception {
+        List<StoredObject> objects = new ArrayList<>();
+        ListObjectsArgs.Builder args = ListObjectsArgs.builder()
+                .bucket(bucketName)
+                .prefix(prefix)
+                .recursive(true)
+                .maxKeys(Math.min(limit, 1000));
+        if (startAfter != null) {
+            args.startAfter(startAfter);
+        }
+        Iterable<Result<Item>> results = minioClient.listObjects(args.build());
+        for (Result<Item> result : results) {
+            if (objects.size() >= limit) {
+                break;
+            }
+            Item item = result.get();
+            objects.add(new StoredObject(item.objectName(), item.size(), item.lastModified().toInstant(),
+                    unquote(item.etag())));
+        }
+        return objects;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        try {
+            minioClient.bucketExists(
+                    BucketExistsArgs.builder().bucket(bucketName).build()
+            );
+            return true;
+        } catch (Exception e) {
+            log.warn("MinIO недоступен: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private static String unquote(String etag) {
+        return etag != null ? etag.replace("\"", "") : null;
+    }
+
+    private void ensureBucket() throws Exception {
+        if (bucketReady) {
+            return;
+        }
+        synchronized (this) {
+            if (bucketReady) {
+                return;
+            }
+            boolean bucketExists = minioClient.bucketExists(
+                    BucketExistsArgs.builder().bucket(bucketName).build()
+            );
+            if (!bucketExists) {
+                minioClient.makeBucket(
+                        MakeBucketArgs.builder().bucket(bucketName).build()
+                );
+                log.info("Создан bucket: {}", bucketName);
+            } else {
+                log.info("Bucket {} уже существует", bucketName);
+            }
+            bucketReady = true;
+        }
+    }
+}
@@ -1,31 +1,54 @@
 package ru.itmo.is.lab1.service;
 
-import io.minio.*;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import ru.itmo.is.lab1.service.ObjectStorage.StoredObject;
 
-import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.channels.WritableByteChannel;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Сервис для работы с MinIO (S3-совместимое хранилище).
- * Поддерживает подготовку файлов для двухфазного коммита.
+ * Сервис файлов импорта с двухфазным коммитом: файл загружается в pending директорию
+ * и переносится в постоянное хранилище после коммита транзакции БД.
+ * Сами операции с объектами выполняет {@link ObjectStorage} (MinIO или локальная файловая система).
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class MinioService {
 
-    private final MinioClient minioClient;
+    /**
+     * Буфер pipe между чтением файла и загрузкой в хранилище.
+     */
+    private static final int PIPE_BUFFER_SIZE = 64 * 1024;
+
+    private static final long ABORT_TIMEOUT_SECONDS = 30;
+
+    private static final String PENDING_PREFIX = "pending/";
+
+    private final ObjectStorage storage;
+
+    private final ThreadPoolTaskExecutor uploadExecutor;
 
-    @Value("${minio.bucket-name}")
-    private String bucketName;
+    public MinioService(ObjectStorage storage,
+                        @Qualifier("minioUploadExecutor") ThreadPoolTaskExecutor uploadExecutor) {
+        this.storage = storage;
+        this.uploadExecutor = uploadExecutor;
+    }
 
     /**
      * Генерирует уникальное имя объекта для файла.
@@ -39,28 +62,45 @@ public class MinioService {
     /**
      * Фаза PREPARE: Загружает файл во временную директорию.
      * Файл помечается как pending и может быть удалён при откате.
+     * Содержимое передаётся потоком, без чтения в память целиком.
      */
     public String prepareUpload(MultipartFile file, Long userId) throws Exception {
         String objectName = generateObjectName(file.getOriginalFilename(), userId);
-        String pendingObjectName = "pending/" + objectName;
+        String pendingObjectName = PENDING_PREFIX + objectName;
 
-        try {
-            // Сохраняем содержимое файла в байтовый массив
-            byte[] fileContent = file.getInputStream().readAllBytes();
-            
-            minioClient.putObject(
-                    PutObjectArgs.builder()
-                            .bucket(bucketName)
-                            .object(pendingObjectName)
-                            .stream(new ByteArrayInputStream(fileContent), fileContent.length, -1)
-                            .contentType(file.getContentType())
-                            .build()
-            );
+        try (InputStream inputStream = file.getInputStream()) {
+            storage.put(pendingObjectName, inputStream, file.getSize(), file.getContentType());
 
             log.info("Файл подготовлен к загрузке: {}", pendingObjectName);
             return pendingObjectName;
         } catch (Exception e) {
-            log.error("Ошибка подготовки файла в MinIO: {}", e.getMessage());
+            log.error("Ошибка подготовки файла в хранилище: {}", e.getMessage());
+            throw new MinioOperationException("Ошибка подготовки файла в хранилище", e);
+        }
+    }
+
+    /**
+     * Фаза PREPARE в потоковом режиме: загрузка в pending директорию идёт параллельно
+     * с чтением файла вызывающим кодом.
+     *
+     * Вызывающий код читает файл через {@link StreamingUpload#tee(InputStream)}: каждый прочитанный
+     * байт одновременно уходит в хранилище (в MinIO - multipart upload частями по {@code minio.upload.part-size}).
+     * Так файл читается ровно один раз, а память на импорт не зависит от размера файла.
+     */
+    public StreamingUpload prepareStreamingUpload(String originalFileName, String contentType, Long userId) {
+        String pendingObjectName = PENDING_PREFIX + generateObjectName(originalFileName, userId);
+
+        try {
+            StreamingUpload upload = new StreamingUpload(pendingObjectName);
+            upload.future = uploadExecutor.submit(() -> {
+                try (InputStream source = upload.source) {
+                    storage.put(pendingObjectName, source, -1, contentType);
+                }
+                return null;
+            });
+            return upload;
+        } catch (Exception e) {
+            log.error("Ошибка подготовки файла в хранилище: {}", e.getMessage());
             throw new MinioOperationException("Ошибка подготовки файла в хранилище", e);
         }
     }
@@ -69,37 +109,43 @@ public class MinioService {
      * Фаза COMMIT: Перемещает файл из pending в постоянное хранилище.
      */
     public String commitUpload(String pendingObjectName) throws Exception {
-        String finalObjectName = pendingObjectName.replace("pending/", "");
+        String finalObjectName = pendingObjectName.replace(PENDING_PREFIX, "");
 
         try {
-            // Копируем объект в финальное место
-            minioClient.copyObject(
-                    CopyObjectArgs.builder()
-                            .bucket(bucketName)
-                            .object(finalObjectName)
-                            .source(CopySource.builder()
-                                    .bucket(bucketName)
-                                    .object(pendingObjectName)
-                                    .build())
-                            .build()
-            );
-
-            // Удаляем pending объект
-            minioClient.removeObject(
-                    RemoveObjectArgs.builder()
-                            .bucket(bucketName)
-                            .object(pendingObjectName)
-                            .build()
-            );
+            storage.move(pendingObjectName, finalObjectName);
 
             log.info("Файл закоммичен: {} -> {}", pendingObjectName, finalObjectName);
             return finalObjectName;
         } catch (Exception e) {
-            log.error("Ошибка коммита файла в MinIO: {}", e.getMessage());
+            log.error("Ошибка коммита файла в хранилище: {}", e.getMessage());
             throw new MinioOperationException("Ошибка коммита файла в хранилище", e);
         }
     }
 
+    /**
+     * Имя pending объекта, из которого переносится постоянный объект objectName.
+     */
+    public String pendingObjectName(String objectName) {
+        return PENDING_PREFIX + objectName;
+    }
+
+    /**
+     * Проверяет, что файл уже перенесён из pending: постоянный объект есть, а pending - нет.
+     * Ошибка обращения к хранилищу считается отрицательным ответом.
+     */
+    public boolean isCommitted(String pendingObjectName) {
+        return exists(pendingObjectName.replace(PENDING_PREFIX, "")) && !exists(pendingObjectName);
+    }
+
+    private boolean exists(String objectName) {
+        try {
+            storage.stat(objectName);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
     /**
      * Фаза ROLLBACK: Удаляет pending файл при откате транзакции.
      */
@@ -109,47 +155,53 @@ public class MinioService {
         }
 
         try {
-            minioClient.removeObject(
-                    RemoveObjectArgs.builder()
-                            .bucket(bucketName)
-                            .object(pendingObjectName)
-                            .build()
-            );
+            storage.delete(pendingObjectName);
             log.info("Файл откачен (удалён): {}", pendingObjectName);
         } catch (Exception e) {
-            log.error("Ошибка отката файла в MinIO: {}", e.getMessage());
+            log.error("Ошибка отката файла в хранилище: {}", e.getMessage());
             // При ошибке отката не бросаем исключение, только логируем
         }
     }
 
     /**
-     * Проверяет доступность MinIO.
+     * Проверяет доступность хранилища.
      */
     public boolean isAvailable() {
+        return storage.isAvailable();
+    }
+
+    /**
+     * Получает файл из хранилища.
+     */
+    public InputStream getFile(String objectName) throws Exception {
         try {
-            minioClient.bucketExists(
-                    BucketExistsArgs.builder().bucket(bucketName).build()
-            );
-            return true;
+            return storage.get(objectName);
         } catch (Exception e) {
-            log.warn("MinIO недоступен: {}", e.getMessage());
-            return false;
+            log.error("Ошибка получения файла из хранилища: {}", e.getMessage());
+            throw new MinioOperationException("Ошибка получения файла из хранилища", e);
         }
     }
 
     /**
-     * Получает файл из хранилища.
+     * Размер, время изменения и ETag файла.
      */
-    public InputStream getFile(String objectName) throws Exception {
+    public StoredObject statFile(String objectName) {
+        try {
+            return storage.stat(objectName);
+        } catch (Exception e) {
+            log.error("Ошибка получения сведений о файле из хранилища: {}", e.getMessage());
+            throw new MinioOperationException("Ошибка получения файла из хранилища", e);
+        }
+    }
+
+    /**
+     * Передаёт в канал length байт файла, начиная с offset (для скачивания без промежуточного потока).
+     */
+    public long transferFile(String objectName, long offset, long length, WritableByteChannel target) {
         try {
-            return minioClient.getObject(
-                    GetObjectArgs.builder()
-                            .bucket(bucketName)
-                            .object(objectName)
-                            .build()
-            );
+            return storage.transferTo(objectName, offset, length, target);
         } catch (Exception e) {
-            log.error("Ошибка получения файла из MinIO: {}", e.getMessage());
+            log.error("Ошибка передачи файла из хранилища: {}", e.getMessage());
             throw new MinioOperationException("Ошибка получения файла из хранилища", e);
         }
     }
@@ -159,21 +211,191 @@ public class MinioService {
      */
     public void deleteFile(String objectName) throws Exception {
         try {
-            minioClient.removeObject(
-                    RemoveObjectArgs.builder()
-                            .bucket(bucketName)
-                            .object(objectName)
-                            .build()
-            );
+            storage.delete(objectName);
             log.info("Файл удалён: {}", objectName);
         } catch (Exception e) {
-            log.error("Ошибка удаления файла из MinIO: {}", e.getMessage());
+            log.error("Ошибка удаления файла из хранилища: {}", e.getMessage());
             throw new MinioOperationException("Ошибка удаления файла из хранилища", e);
         }
     }
 
     /**
-     * Исключение для операций MinIO.
+     * Возвращает не более limit объектов из pending директории, следующих по имени за startAfter
+     * (null - с начала).
+     */
+    public List<StoredObject> listPendingObjects(String startAfter, int limit) {
+        try {
+            return storage.list(PENDING_PREFIX, startAfter, limit);
+        } catch (Exception e) {
+            log.error("Ошибка получения списка pending файлов из хранилища: {}", e.getMessage());
+            throw new MinioOperationException("Ошибка получения списка файлов хранилища", e);
+        }
+    }
+
+    /**
+     * Потоковая загрузка файла в pending директорию.
+     * Данные передаются из потока чтения файла в поток загрузки через pipe с ограниченным буфером.
+     */
+    public class StreamingUpload {
+
+        private final String pendingObjectName;
+        private final PipedOutputStream sink;
+        private final AbortableInputStream source;
+        private Future<?> future;
+
+        private StreamingUpload(String pendingObjectName) throws IOException {
+            this.pendingObjectName = pendingObjectName;
+            PipedInputStream pipe = new PipedInputStream(PIPE_BUFFER_SIZE);
+            this.sink = new PipedOutputStream(pipe);
+            this.source = new AbortableInputStream(pipe);
+        }
+
+        public String getPendingObjectName() {
+            return pendingObjectName;
+        }
+
+        /**
+         * Оборачивает поток файла: всё прочитанное из него дублируется в загрузку.
+         * close() возвращённого потока не закрывает ни исходный поток, ни загрузку —
+         * их жизненным циклом управляют вызывающий код и {@link #complete(InputStream)}.
+         */
+        public InputStream tee(InputStream in) {
+            return new FilterInputStream(in) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b != -1) {
+                        sink.write(b);
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int n = super.read(buffer, offset, length);
+                    if (n > 0) {
+                        sink.write(buffer, offset, n);
+                    }
+                    return n;
+                }
+
+                @Override
+                public long skip(long n) throws IOException {
+                    // Пропущенные байты тоже должны попасть в хранилище
+                    byte[] buffer = new byte[(int) Math.min(n, 8192)];
+                    int read = read(buffer, 0, buffer.length);
+                    return Math.max(read, 0);
+                }
+
+                @Override
+                public void close() {
+                    // Закрытие парсером не должно обрывать загрузку
+                }
+            };
+        }
+
+        /**
+         * Дочитывает остаток файла (если парсер остановился раньше конца) и дожидается
+         * завершения загрузки в pending директорию.
+         *
+         * @return имя pending объекта
+         */
+        public String complete(InputStream teed) {
+            try {
+                teed.transferTo(OutputStream.nullOutputStream());
+                sink.close();
+                future.get();
+                log.info("Файл подготовлен к загрузке: {}", pendingObjectName);
+                return pendingObjectName;
+            } catch (ExecutionException e) {
+                log.error("Ошибка подготовки файла в хранилище: {}", e.getCause().getMessage());
+                throw new MinioOperationException("Ошибка подготовки файла в хранилище", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MinioOperationException("Загрузка файла в хранилище прервана", e);
+            } catch (IOException e) {
+                throw new MinioOperationException("Ошибка подготовки файла в хранилище", failureCause(e));
+            }
+        }
+
+        /**
+         * Прерывает загрузку: незавершённый multipart upload отменяется, а уже
+         * загруженный объект (если загрузка успела завершиться) удаляется.
+         */
+        public void abort() {
+            source.abort();
+            try {
+                sink.close();
+            } catch (IOException ignored) {
+                // Поток загрузки уже закрыт
+            }
+            try {
+                future.get(ABORT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (Exception ignored) {
+                // Ожидаемо: загрузка завершилась ошибкой из-за отмены
+            }
+            rollbackUpload(pendingObjectName);
+        }
+
+        /**
+         * Если запись в pipe упала из-за того, что загрузка уже завершилась ошибкой,
+         * возвращает исходную ошибку загрузки.
+         */
+        private Throwable failureCause(IOException e) {
+            if (future.isDone()) {
+                try {
+                    future.get();
+                } catch (ExecutionException uploadError) {
+                    return uploadError.getCause();
+                } catch (Exception ignored) {
+                    // Используем исходную ошибку
+                }
+            }
+            return e;
+        }
+    }
+
+    /**
+     * Поток, который после abort() завершается ошибкой вместо EOF,
+     * чтобы хранилище не закоммитило частично переданный файл.
+     */
+    private static class AbortableInputStream extends FilterInputStream {
+
+        private volatile boolean aborted;
+
+        AbortableInputStream(InputStream in) {
+            super(in);
+        }
+
+        void abort() {
+            aborted = true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkAborted();
+            int b = super.read();
+            checkAborted();
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            checkAborted();
+            int n = super.read(buffer, offset, length);
+            checkAborted();
+            return n;
+        }
+
+        private void checkAborted() throws IOException {
+            if (aborted) {
+                throw new IOException("Загрузка прервана");
+            }
+        }
+    }
+
+    /**
+     * Исключение для операций с хранилищем файлов.
      */
     public static class MinioOperationException extends RuntimeException {
         public MinioOperationException(String message, Throwable cause) {
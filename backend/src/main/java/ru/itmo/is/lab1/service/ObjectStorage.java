@@ -0,0 +1,56 @@
+package ru.itmo.is.lab1.service;
+
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Объектное хранилище файлов импорта.
+ * Реализация выбирается свойством {@code storage.type}: minio (по умолчанию) или local.
+ * Имена объектов - пути через '/', например {@code pending/imports/1/file.json}.
+ */
+public interface ObjectStorage {
+
+    /**
+     * Записывает объект. size = -1, если размер заранее неизвестен (потоковая загрузка).
+     * Если поток завершился ошибкой, объект не создаётся.
+     */
+    void put(String objectName, InputStream content, long size, String contentType) throws Exception;
+
+    InputStream get(String objectName) throws Exception;
+
+    /**
+     * Передаёт в канал length байт объекта, начиная с offset.
+     *
+     * @return число переданных байт
+     */
+    long transferTo(String objectName, long offset, long length, WritableByteChannel target) throws Exception;
+
+    StoredObject stat(String objectName) throws Exception;
+
+    /**
+     * Переносит объект под новое имя. После успешного вызова исходного объекта нет.
+     */
+    void move(String sourceObjectName, String targetObjectName) throws Exception;
+
+    /**
+     * Удаляет объект. Отсутствие объекта ошибкой не считается.
+     */
+    void delete(String objectName) throws Exception;
+
+    /**
+     * Возвращает не более limit объектов с данным префиксом в лексикографическом порядке имён,
+     * начиная с первого после startAfter (null - с начала). Следующая страница запрашивается
+     * с именем последнего объекта предыдущей.
+     */
+    List<StoredObject> list(String prefix, String startAfter, int limit) throws Exception;
+
+    boolean isAvailable();
+
+    /**
+     * Объект хранилища: имя, размер, время последнего изменения и ETag (без кавычек).
+     * ETag меняется при любом изменении содержимого объекта.
+     */
+    record StoredObject(String objectName, long size, Instant lastModified, String etag) {}
+}
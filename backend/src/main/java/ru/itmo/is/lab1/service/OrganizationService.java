@@ -9,7 +9,9 @@ import ru.itmo.is.lab1.entity.Organization;
 import ru.itmo.is.lab1.repository.OrganizationRepository;
 import ru.itmo.is.lab1.repository.WorkerRepository;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,12 +21,22 @@ public class OrganizationService {
     private final OrganizationRepository organizationRepository;
     private final WorkerRepository workerRepository;
     private final MapperService mapperService;
+    private final QueryResultCache queryResultCache;
 
-    @Transactional(readOnly = true)
+    /**
+     * Список организаций; повторные запросы отдаются из {@link QueryResultCache}.
+     */
     public List<OrganizationDTO> getAll() {
-        return organizationRepository.findAll().stream()
-                .map(mapperService::toDTO)
-                .collect(Collectors.toList());
+        return queryResultCache.get(QueryResultCache.Region.ORGANIZATIONS, "all",
+                () -> organizationRepository.findAll().stream()
+                        .map(mapperService::toDTO)
+                        .collect(Collectors.toList()),
+                organizations -> {
+                    Set<String> dependencies = new HashSet<>();
+                    organizations.forEach(organization ->
+                            mapperService.collectDependencies(organization, dependencies));
+                    return dependencies;
+                });
     }
 
     @Transactional(readOnly = true)
@@ -0,0 +1,159 @@
+package ru.itmo.is.lab1.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import ru.itmo.is.lab1.repository.ImportHistoryRepository;
+import ru.itmo.is.lab1.repository.StorageCommitTaskRepository;
+import ru.itmo.is.lab1.service.ObjectStorage.StoredObject;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Фоновая сверка pending директории MinIO с историей импорта.
+ *
+ * Фазу COMMIT двухфазного коммита доводит {@link StorageCommitOutbox}; файлы с задачей в outbox
+ * сверка пропускает. Фаза ROLLBACK может не выполниться при падении процесса. Сверка доводит:
+ * - файл записан в ImportHistory.minioObjectName, но задачи outbox нет (например, файлы,
+ *   закоммиченные до появления outbox) - переносится из pending;
+ * - файла нет в истории и он старше orphan-age - удаляется как осиротевший.
+ * Более молодые файлы пропускаются: они могут принадлежать идущему импорту.
+ * За один проход обрабатывается не более max-objects-per-run файлов. Следующий проход продолжает
+ * с имени, на котором остановился предыдущий, а дойдя до конца директории, начинает сначала,
+ * поэтому пропускаемые файлы в начале списка не заслоняют остальные.
+ * Сверка выполняется в собственном потоке {@code minioReconcileExecutor}: планировщик только
+ * запускает её, и блокирующие обращения к хранилищу не задерживают другие задачи @Scheduled.
+ */
+@Component
+@Slf4j
+public class PendingObjectReconciler {
+
+    private final MinioService minioService;
+    private final ImportHistoryRepository importHistoryRepository;
+    private final StorageCommitTaskRepository storageCommitTaskRepository;
+    private final ThreadPoolTaskExecutor reconcileExecutor;
+
+    @Value("${minio.reconcile.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Минимальный возраст pending файла, записанного в истории, для переноса.
+     */
+    @Value("${minio.reconcile.commit-grace-ms:60000}")
+    private long commitGraceMs;
+
+    /**
+     * Возраст, после которого pending файл без записи в истории считается осиротевшим.
+     * Должен превышать время самого долгого импорта вместе с ожиданием в очереди.
+     */
+    @Value("${minio.reconcile.orphan-age-ms:21600000}")
+    private long orphanAgeMs;
+
+    @Value("${minio.reconcile.max-objects-per-run:1000}")
+    private int maxObjectsPerRun;
+
+    /**
+     * Имя последнего просмотренного файла; null - следующий проход начнётся с начала директории.
+     * Хранится в памяти: после перезапуска сверка просто начинает сначала.
+     */
+    private volatile String startAfter;
+
+    public PendingObjectReconciler(MinioService minioService,
+                                   ImportHistoryRepository importHistoryRepository,
+                                   StorageCommitTaskRepository storageCommitTaskRepository,
+                                   @Qualifier("minioReconcileExecutor") ThreadPoolTaskExecutor reconcileExecutor) {
+        this.minioService = minioService;
+        this.importHistoryRepository = importHistoryRepository;
+        this.storageCommitTaskRepository = storageCommitTaskRepository;
+        this.reconcileExecutor = reconcileExecutor;
+    }
+
+    /**
+     * Передаёт сверку её потоку. Если предыдущая сверка ещё идёт, запуск пропускается.
+     */
+    @Scheduled(fixedDelayString = "${minio.reconcile.interval-ms:300000}",
+               initialDelayString = "${minio.reconcile.interval-ms:300000}")
+    public void scheduleReconcile() {
+        try {
+            reconcileExecutor.execute(this::reconcile);
+        } catch (TaskRejectedException e) {
+            log.debug("Предыдущая сверка pending файлов ещё выполняется, запуск пропущен");
+        }
+    }
+
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+
+        long startedAt = System.nanoTime();
+        List<StoredObject> pending;
+        try {
+            pending = minioService.listPendingObjects(startAfter, maxObjectsPerRun);
+        } catch (Exception e) {
+            log.warn("Сверка pending файлов пропущена: {}", e.getMessage());
+            return;
+        }
+        // Неполная страница - директория просмотрена до конца
+        startAfter = pending.size() < maxObjectsPerRun ? null : pending.get(pending.size() - 1).objectName();
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Set<String> committed = new HashSet<>(importHistoryRepository.findExistingObjectNames(
+                pending.stream()
+                        .map(object -> toFinalObjectName(object.objectName()))
+                        .collect(Collectors.toList())));
+
+        // Эти файлы перенесёт outbox
+        Set<String> queued = new HashSet<>(storageCommitTaskRepository.findQueuedObjectNames(
+                pending.stream()
+                        .map(StoredObject::objectName)
+                        .collect(Collectors.toList())));
+
+        Instant now = Instant.now();
+        int promoted = 0;
+        int deleted = 0;
+        int skipped = 0;
+        int failed = 0;
+
+        for (StoredObject object : pending) {
+            Duration age = Duration.between(object.lastModified(), now);
+            boolean isCommitted = committed.contains(toFinalObjectName(object.objectName()));
+
+            try {
+                if (queued.contains(object.objectName())) {
+                    skipped++;
+                } else if (isCommitted && age.toMillis() >= commitGraceMs) {
+                    minioService.commitUpload(object.objectName());
+                    promoted++;
+                } else if (!isCommitted && age.toMillis() >= orphanAgeMs) {
+                    minioService.deleteFile(object.objectName());
+                    deleted++;
+                } else {
+                    skipped++;
+                }
+            } catch (Exception e) {
+                log.warn("Не удалось обработать pending файл {}: {}", object.objectName(), e.getMessage());
+                failed++;
+            }
+        }
+
+        long durationMs = Duration.ofNanos(System.nanoTime() - startedAt).toMillis();
+        log.info("Сверка pending файлов за {} мс: просмотрено {}, перенесено {}, удалено {}, пропущено {}, ошибок {}",
+                durationMs, pending.size(), promoted, deleted, skipped, failed);
+    }
+
+    private static String toFinalObjectName(String pendingObjectName) {
+        return pendingObjectName.replace("pending/", "");
+    }
+}
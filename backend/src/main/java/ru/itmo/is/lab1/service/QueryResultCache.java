@@ -0,0 +1,188 @@
+package ru.itmo.is.lab1.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.itmo.is.lab1.entity.Organization;
+import ru.itmo.is.lab1.entity.Worker;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Кэш готовых ответов списочных запросов: страниц работников с фильтрами и списка организаций.
+ *
+ * Ключ - нормализованные фильтр, сортировка и страница. Попадание не открывает транзакцию
+ * и не берёт соединение из пула; промах загружается в read-only транзакции.
+ *
+ * Инвалидация по изменениям из {@link CacheInvalidationBus} (после коммита на этом узле
+ * и по уведомлениям других узлов):
+ * - любое изменение основной сущности региона (Worker для страниц, Organization для списка)
+ *   вытесняет весь регион - от неё зависят состав, порядок и число записей;
+ * - изменение или удаление вложенной сущности (организации работника, адреса, персоны...)
+ *   вытесняет только записи, в которых она показана.
+ * Загрузка, во время которой пришла инвалидация, в кэш не попадает: она могла прочитать
+ * данные до коммита. TTL - страховка от изменений в обход Hibernate.
+ */
+@Service
+@Slf4j
+public class QueryResultCache implements CacheInvalidationBus.Listener {
+
+    public enum Region {
+        WORKER_PAGES(Worker.class),
+        ORGANIZATIONS(Organization.class);
+
+        private final String entityName;
+
+        Region(Class<?> entity) {
+            this.entityName = entity.getName();
+        }
+    }
+
+    private record Key(Region region, Object key) {
+    }
+
+    private record Entry(Object value, Set<String> dependencies, long expiresAt) {
+    }
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    /**
+     * LRU по доступу; все обращения под monitor этого объекта.
+     */
+    private final LinkedHashMap<Key, Entry> entries;
+
+    /**
+     * Счётчик инвалидаций: загрузка сохраняется, только если он не изменился за время загрузки.
+     */
+    private long generation;
+
+    private final Map<Region, Counter> hitCounters = new EnumMap<>(Region.class);
+    private final Map<Region, Counter> missCounters = new EnumMap<>(Region.class);
+    private final Counter invalidationCounter;
+
+    @Value("${cache.query-results.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cache.query-results.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    public QueryResultCache(CacheInvalidationBus invalidationBus,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${cache.query-results.max-entries:500}") int maxEntries) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+
+        for (Region region : Region.values()) {
+            String tag = region.name().toLowerCase();
+            hitCounters.put(region, Counter.builder("query.result.cache.hits")
+                    .description("Ответы из кэша результатов запросов")
+                    .tag("region", tag)
+                    .register(meterRegistry));
+            missCounters.put(region, Counter.builder("query.result.cache.misses")
+                    .description("Ответы, загруженные из БД")
+                    .tag("region", tag)
+                    .register(meterRegistry));
+        }
+        this.invalidationCounter = Counter.builder("query.result.cache.invalidations")
+                .description("Записи, вытесненные изменениями сущностей")
+                .register(meterRegistry);
+        Gauge.builder("query.result.cache.size", this, QueryResultCache::size)
+                .description("Записи в кэше результатов запросов")
+                .register(meterRegistry);
+
+        invalidationBus.addListener(this);
+    }
+
+    /**
+     * Зависимость записи кэша от сущности entity с идентификатором id.
+     */
+    public static String dependency(Class<?> entity, Long id) {
+        return entity.getName() + "#" + id;
+    }
+
+    /**
+     * Ответ из кэша или загруженный loader в read-only транзакции.
+     * dependencies - вложенные сущности ответа (см. {@link #dependency}).
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Region region, Object key, Supplier<T> loader, Function<T, Set<String>> dependencies) {
+        if (!enabled) {
+            return readOnlyTransaction.execute(status -> loader.get());
+        }
+
+        Key cacheKey = new Key(region, key);
+        long loadGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(cacheKey);
+            if (entry != null && entry.expiresAt() > System.currentTimeMillis()) {
+                hitCounters.get(region).increment();
+                return (T) entry.value();
+            }
+            loadGeneration = generation;
+        }
+        missCounters.get(region).increment();
+
+        T value = readOnlyTransaction.execute(status -> loader.get());
+        Set<String> valueDependencies = dependencies.apply(value);
+
+        synchronized (this) {
+            if (generation == loadGeneration) {
+                entries.put(cacheKey, new Entry(value, valueDependencies,
+                        System.currentTimeMillis() + ttlSeconds * 1000));
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public synchronized void entitiesChanged(String entityName, Set<Object> ids) {
+        generation++;
+        int before = entries.size();
+        String prefix = entityName + "#";
+        entries.entrySet().removeIf(entry -> {
+            if (entry.getKey().region().entityName.equals(entityName)) {
+                return true;
+            }
+            Set<String> entryDependencies = entry.getValue().dependencies();
+            if (ids == null) {
+                return entryDependencies.stream().anyMatch(dependency -> dependency.startsWith(prefix));
+            }
+            // Новые записи (пустой набор) ещё не показаны ни в одном ответе
+            return ids.stream().anyMatch(id -> entryDependencies.contains(prefix + id));
+        });
+        invalidationCounter.increment(before - entries.size());
+    }
+
+    @Override
+    public synchronized void allChanged() {
+        clear();
+    }
+
+    public synchronized void clear() {
+        generation++;
+        invalidationCounter.increment(entries.size());
+        entries.clear();
+        log.debug("Кэш результатов запросов очищен");
+    }
+
+    private synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,166 @@
+package ru.itmo.is.lab1.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.itmo.is.lab1.repository.WorkerRepository;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Поддерживаемая в памяти сумма рейтингов всех работников.
+ *
+ * Включается через workers.rating-sum.running-total. Изменения (create/update/delete/импорт)
+ * применяются к сумме только после коммита своей транзакции; расхождения из-за гонок
+ * и изменений в обход сервиса устраняются периодической сверкой с БД.
+ *
+ * Сверка применяет поправку, только если за время агрегатного запроса не коммитилась ни одна
+ * транзакция с изменением суммы: иначе неизвестно, учёл ли запрос её изменение, и поправка
+ * посчитала бы его дважды. Такой запуск пропускается, поправку сделает следующий.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RatingSumTracker {
+
+    private final WorkerRepository workerRepository;
+
+    private final LongAdder total = new LongAdder();
+
+    /**
+     * Защищает committing и commitEpoch; под ним же применяются закоммиченные изменения.
+     */
+    private final Object commitLock = new Object();
+
+    /**
+     * Транзакции с изменением суммы между beforeCommit и afterCompletion.
+     */
+    private int committing;
+
+    /**
+     * Число начатых коммитов с изменением суммы.
+     */
+    private long commitEpoch;
+
+    private volatile boolean initialized = false;
+
+    @Value("${workers.rating-sum.running-total:false}")
+    private boolean enabled;
+
+    /**
+     * Возвращает true, если сумму можно брать из памяти без запроса к БД.
+     */
+    public boolean isAvailable() {
+        return enabled && initialized;
+    }
+
+    public long get() {
+        return total.sum();
+    }
+
+    /**
+     * Учитывает изменение суммы рейтингов. В активной транзакции изменения накапливаются
+     * и применяются один раз в afterCommit; при откате отбрасываются.
+     */
+    public void add(long delta) {
+        if (!enabled || delta == 0) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            synchronized (commitLock) {
+                commitEpoch++;
+                total.add(delta);
+            }
+            return;
+        }
+
+        PendingDelta pending = (PendingDelta) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            PendingDelta registered = new PendingDelta();
+            TransactionSynchronizationManager.bindResource(this, registered);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    synchronized (commitLock) {
+                        committing++;
+                        commitEpoch++;
+                        registered.committing = true;
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(RatingSumTracker.this);
+                    synchronized (commitLock) {
+                        if (status == STATUS_COMMITTED) {
+                            total.add(registered.value);
+                        }
+                        if (registered.committing) {
+                            committing--;
+                        }
+                    }
+                }
+            });
+            pending = registered;
+        }
+        pending.value += delta;
+    }
+
+    /**
+     * Сумма из памяти используется после первой успешной сверки.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        reconcile();
+    }
+
+    /**
+     * Сверка с БД: сумма пересчитывается одним агрегатным запросом.
+     * Поправка - разница между результатом запроса и суммой в памяти, снятой до него.
+     */
+    @Scheduled(fixedDelayString = "${workers.rating-sum.reconcile-interval-ms:60000}",
+               initialDelayString = "${workers.rating-sum.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+
+        long epoch;
+        long before;
+        synchronized (commitLock) {
+            if (committing > 0) {
+                log.debug("Сверка суммы рейтингов пропущена: идёт коммит изменений");
+                return;
+            }
+            epoch = commitEpoch;
+            before = total.sum();
+        }
+
+        long actual = workerRepository.sumRating();
+
+        synchronized (commitLock) {
+            if (committing > 0 || commitEpoch != epoch) {
+                log.debug("Сверка суммы рейтингов пропущена: изменения коммитились во время запроса");
+                return;
+            }
+            long drift = actual - before;
+            if (drift != 0) {
+                total.add(drift);
+                log.info("Сумма рейтингов сверена с БД: {} (расхождение {})", actual, drift);
+            }
+        }
+        initialized = true;
+    }
+
+    private static class PendingDelta {
+        private long value;
+        private boolean committing;
+    }
+}
@@ -0,0 +1,278 @@
+package ru.itmo.is.lab1.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.itmo.is.lab1.entity.ImportHistory;
+import ru.itmo.is.lab1.entity.StorageCommitTask;
+import ru.itmo.is.lab1.repository.ImportHistoryRepository;
+import ru.itmo.is.lab1.repository.StorageCommitTaskRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Outbox фазы COMMIT двухфазного коммита файлов импорта.
+ *
+ * Запись о переносе pending файла сохраняется в той же транзакции, что и история импорта,
+ * поэтому не теряется при падении процесса. Сам перенос выполняет пул {@code minioCommitExecutor}:
+ * после коммита задача сразу передаётся пулу, HTTP-ответ перенос не ждёт.
+ * Если очередь пула заполнена, задача остаётся в таблице и её подберёт периодический опрос.
+ * Неуспешная попытка откладывается с экспоненциальной задержкой. После max-attempts попыток
+ * задача переходит в конечное состояние, а файл импорта помечается недоступным
+ * (minioObjectName в истории сбрасывается). Перед выполнением задача захватывается в БД на время аренды,
+ * поэтому одну задачу не выполняют одновременно два потока или два узла.
+ * Тот, кому постоянный объект нужен сразу (продолжение CHUNKED, скачивание), переносит его
+ * синхронно через {@link #commitNow}.
+ */
+@Service
+@Slf4j
+public class StorageCommitOutbox {
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final StorageCommitTaskRepository taskRepository;
+    private final ImportHistoryRepository importHistoryRepository;
+    private final MinioService minioService;
+    private final ThreadPoolTaskExecutor commitExecutor;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Задачи, уже переданные пулу этого узла.
+     */
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong deadLetters = new AtomicLong();
+    private final Counter completedCounter;
+    private final Counter failedCounter;
+    private final Counter deadCounter;
+    private final Counter rejectedCounter;
+    private final Timer commitDelayTimer;
+
+    @Value("${minio.commit-outbox.backoff-ms:1000}")
+    private long backoffMs;
+
+    @Value("${minio.commit-outbox.max-backoff-ms:300000}")
+    private long maxBackoffMs;
+
+    /**
+     * Время, на которое задача захватывается перед выполнением.
+     * Должно превышать время одного переноса, иначе задачу может взять второй поток.
+     */
+    @Value("${minio.commit-outbox.lease-ms:60000}")
+    private long leaseMs;
+
+    @Value("${minio.commit-outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${minio.commit-outbox.max-attempts:20}")
+    private int maxAttempts;
+
+    public StorageCommitOutbox(StorageCommitTaskRepository taskRepository,
+                               ImportHistoryRepository importHistoryRepository,
+                               MinioService minioService,
+                               @Qualifier("minioCommitExecutor") ThreadPoolTaskExecutor commitExecutor,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry) {
+        this.taskRepository = taskRepository;
+        this.importHistoryRepository = importHistoryRepository;
+        this.minioService = minioService;
+        this.commitExecutor = commitExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        this.completedCounter = Counter.builder("storage.commit.outbox.completed")
+                .description("Файлы, перенесённые из pending")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("storage.commit.outbox.failed")
+                .description("Неуспешные попытки переноса")
+                .register(meterRegistry);
+        this.deadCounter = Counter.builder("storage.commit.outbox.dead")
+                .description("Задачи, переведённые в конечное состояние после max-attempts попыток")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("storage.commit.outbox.rejected")
+                .description("Задачи, не принятые заполненной очередью пула")
+                .register(meterRegistry);
+        this.commitDelayTimer = Timer.builder("storage.commit.outbox.delay")
+                .description("Время от коммита импорта до переноса файла")
+                .register(meterRegistry);
+        Gauge.builder("storage.commit.outbox.backlog", backlog, AtomicLong::get)
+                .description("Повторяемые задачи в таблице outbox на момент последнего опроса")
+                .register(meterRegistry);
+        Gauge.builder("storage.commit.outbox.dead.backlog", deadLetters, AtomicLong::get)
+                .description("Задачи в конечном состоянии на момент последнего опроса")
+                .register(meterRegistry);
+        Gauge.builder("storage.commit.outbox.queue", commitExecutor,
+                        executor -> executor.getThreadPoolExecutor().getQueue().size())
+                .description("Задачи в очереди пула переноса")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Сохраняет задачу переноса в текущей транзакции. После коммита задача сразу передаётся пулу.
+     */
+    public void enqueue(String pendingObjectName) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Задача переноса файла создаётся только внутри транзакции");
+        }
+
+        StorageCommitTask task = new StorageCommitTask();
+        task.setPendingObjectName(pendingObjectName);
+        Long taskId = taskRepository.save(task).getId();
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dispatch(taskId);
+            }
+        });
+    }
+
+    /**
+     * Подбирает задачи, время попытки которых наступило: отложенные после ошибки,
+     * не принятые заполненной очередью и оставшиеся после падения процесса.
+     */
+    @Scheduled(fixedDelayString = "${minio.commit-outbox.poll-interval-ms:5000}")
+    public void poll() {
+        backlog.set(taskRepository.countByFailedAtIsNull());
+        deadLetters.set(taskRepository.countByFailedAtIsNotNull());
+
+        List<Long> dueIds = taskRepository.findDueIds(LocalDateTime.now(), PageRequest.of(0, batchSize));
+        for (Long taskId : dueIds) {
+            if (commitExecutor.getThreadPoolExecutor().getQueue().remainingCapacity() == 0) {
+                // Остальные задачи подберёт следующий опрос
+                break;
+            }
+            dispatch(taskId);
+        }
+    }
+
+    private void dispatch(Long taskId) {
+        if (!inFlight.add(taskId)) {
+            return;
+        }
+        try {
+            commitExecutor.execute(() -> {
+                try {
+                    process(taskId);
+                } finally {
+                    inFlight.remove(taskId);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            inFlight.remove(taskId);
+            rejectedCounter.increment();
+            log.debug("Очередь переноса файлов заполнена, задача {} отложена до опроса", taskId);
+        }
+    }
+
+    /**
+     * Переносит файл сразу, не дожидаясь пула. Если задачи нет, файл уже перенесён.
+     * Выполняется и параллельно с пулом: повторный перенос уже перенесённого файла не ошибка.
+     * Ошибка переноса пробрасывается, задача остаётся в outbox.
+     */
+    public void commitNow(String pendingObjectName) {
+        StorageCommitTask task = taskRepository.findByPendingObjectName(pendingObjectName).orElse(null);
+        if (task == null) {
+            return;
+        }
+        try {
+            minioService.commitUpload(pendingObjectName);
+        } catch (Exception e) {
+            if (!minioService.isCommitted(pendingObjectName)) {
+                throw new MinioService.MinioOperationException("Файл импорта ещё не перенесён в хранилище", e);
+            }
+        }
+        complete(task);
+    }
+
+    private void process(Long taskId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (taskRepository.claim(taskId, now, now.plus(Duration.ofMillis(leaseMs))) == 0) {
+            // Задача уже выполнена или её выполняет другой поток
+            return;
+        }
+        StorageCommitTask task = taskRepository.findById(taskId).orElse(null);
+        if (task == null) {
+            return;
+        }
+
+        String pendingObjectName = task.getPendingObjectName();
+        try {
+            minioService.commitUpload(pendingObjectName);
+        } catch (Exception e) {
+            // Предыдущая попытка могла перенести файл, но не успеть удалить задачу
+            if (!minioService.isCommitted(pendingObjectName)) {
+                recordFailure(task, e);
+                return;
+            }
+        }
+
+        complete(task);
+    }
+
+    private void complete(StorageCommitTask task) {
+        taskRepository.deleteById(task.getId());
+        completedCounter.increment();
+        commitDelayTimer.record(Duration.between(task.getCreatedAt(), LocalDateTime.now()));
+    }
+
+    private void recordFailure(StorageCommitTask task, Exception e) {
+        int attempt = task.getAttempts() + 1;
+        String error = String.valueOf(e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+        if (error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+        failedCounter.increment();
+
+        if (attempt >= maxAttempts) {
+            markFailed(task, attempt, error);
+            return;
+        }
+
+        long delay = Math.min(maxBackoffMs, backoffMs * (1L << Math.min(attempt - 1, 20)));
+        delay += ThreadLocalRandom.current().nextLong(backoffMs + 1);
+        taskRepository.recordFailure(task.getId(), LocalDateTime.now().plus(Duration.ofMillis(delay)), error);
+        log.warn("Перенос {} не удался (попытка {}), повтор через {} мс: {}",
+                task.getPendingObjectName(), attempt, delay, error);
+    }
+
+    /**
+     * Конечное состояние: задача больше не выполняется, файл импорта, ссылающийся на постоянный
+     * объект, помечается недоступным. Pending файл не удаляется - задача в таблице защищает его
+     * от сверки {@link PendingObjectReconciler}, и его можно перенести вручную.
+     */
+    private void markFailed(StorageCommitTask task, int attempt, String error) {
+        String objectName = task.getPendingObjectName().replace("pending/", "");
+        transactionTemplate.executeWithoutResult(status -> {
+            taskRepository.markFailed(task.getId(), LocalDateTime.now(), error);
+            for (ImportHistory history : importHistoryRepository.findByMinioObjectName(objectName)) {
+                history.setMinioObjectName(null);
+                history.setErrorMessage("Файл импорта недоступен: не удалось перенести его в хранилище за "
+                        + attempt + " попыток");
+                importHistoryRepository.save(history);
+            }
+        });
+        deadCounter.increment();
+        log.error("Перенос {} не удался после {} попыток, задача остановлена, файл импорта недоступен: {}",
+                task.getPendingObjectName(), attempt, error);
+    }
+}
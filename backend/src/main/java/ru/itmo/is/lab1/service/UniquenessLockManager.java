@@ -0,0 +1,147 @@
+package ru.itmo.is.lab1.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.itmo.is.lab1.repository.WorkerRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Блокировки на хэши ключей уникальности работников.
+ *
+ * Транзакция держит блокировки своих ключей до завершения, поэтому проверка уникальности и вставка
+ * конкурирующих записей с одинаковыми ключами выполняются по очереди, а с разными - параллельно.
+ * Внутри одного вызова {@link #lock} блокировки берутся по возрастанию. Импорт запрашивает ключи
+ * каждой пачки отдельно, поэтому две транзакции с пересекающимися ключами в разных пачках
+ * могут заблокировать друг друга; такую взаимоблокировку разрывает PostgreSQL (40P01),
+ * и импорт повторяет {@link ImportRetryPolicy}.
+ *
+ * Режимы (workers.uniqueness-locks.mode):
+ * - advisory (по умолчанию) - исключительная транзакционная advisory-блокировка PostgreSQL
+ *   на каждый ключ, действует для всех экземпляров приложения. Ключи пачки блокируются
+ *   одним запросом;
+ * - local - ReentrantLock на полосы (stripes) в памяти, только для одного экземпляра приложения.
+ *   Взаимоблокировку здесь разрывает таймаут ожидания полосы.
+ */
+@Component
+@Slf4j
+public class UniquenessLockManager {
+
+    private final WorkerRepository workerRepository;
+
+    private final boolean advisory;
+
+    private final long timeoutMs;
+
+    private final ReentrantLock[] localStripes;
+
+    public UniquenessLockManager(WorkerRepository workerRepository,
+                                 @Value("${workers.uniqueness-locks.mode:advisory}") String mode,
+                                 @Value("${workers.uniqueness-locks.stripes:1024}") int stripes,
+                                 @Value("${workers.uniqueness-locks.timeout-ms:30000}") long timeoutMs) {
+        this.workerRepository = workerRepository;
+        this.advisory = !"local".equalsIgnoreCase(mode);
+        this.timeoutMs = timeoutMs;
+        this.localStripes = new ReentrantLock[advisory ? 0 : stripes];
+        for (int i = 0; i < localStripes.length; i++) {
+            localStripes[i] = new ReentrantLock();
+        }
+        if (advisory) {
+            log.info("Блокировки уникальности: режим advisory");
+        } else {
+            log.info("Блокировки уникальности: режим local, полос {}", stripes);
+        }
+    }
+
+    /**
+     * Захватывает блокировки ключей до конца текущей транзакции.
+     * Блокировки, уже захваченные этой транзакцией, повторно не запрашиваются.
+     */
+    public void lock(Collection<Long> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Блокировки уникальности захватываются только внутри транзакции");
+        }
+
+        HeldLocks held = heldLocks();
+
+        if (advisory) {
+            List<Long> newKeys = new ArrayList<>();
+            for (Long key : new TreeSet<>(keys)) {
+                if (held.keys.add(key)) {
+                    newKeys.add(key);
+                }
+            }
+            workerRepository.lockUniquenessKeys(newKeys);
+            return;
+        }
+
+        Set<Integer> stripes = new TreeSet<>();
+        for (Long key : keys) {
+            int stripe = Math.floorMod(Long.hashCode(key), localStripes.length);
+            if (!held.stripes.contains(stripe)) {
+                stripes.add(stripe);
+            }
+        }
+        for (Integer stripe : stripes) {
+            lockLocalStripe(stripe);
+            held.stripes.add(stripe);
+            held.localLocks.add(localStripes[stripe]);
+        }
+    }
+
+    private void lockLocalStripe(int stripe) {
+        try {
+            if (!localStripes[stripe].tryLock(timeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new CannotAcquireLockException(
+                        "Не удалось дождаться блокировки уникальности за " + timeoutMs + " мс, повторите операцию");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CannotAcquireLockException("Ожидание блокировки уникальности прервано", e);
+        }
+    }
+
+    /**
+     * Возвращает блокировки текущей транзакции, при первом обращении регистрирует их освобождение.
+     * Advisory-блокировки снимает сам PostgreSQL при завершении транзакции.
+     */
+    private HeldLocks heldLocks() {
+        HeldLocks held = (HeldLocks) TransactionSynchronizationManager.getResource(this);
+        if (held != null) {
+            return held;
+        }
+
+        HeldLocks registered = new HeldLocks();
+        TransactionSynchronizationManager.bindResource(this, registered);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(UniquenessLockManager.this);
+                for (int i = registered.localLocks.size() - 1; i >= 0; i--) {
+                    registered.localLocks.get(i).unlock();
+                }
+            }
+        });
+        return registered;
+    }
+
+    private static class HeldLocks {
+        private final Set<Long> keys = new HashSet<>();
+        private final Set<Integer> stripes = new HashSet<>();
+        private final List<ReentrantLock> localLocks = new ArrayList<>();
+    }
+}
@@ -0,0 +1,104 @@
+package ru.itmo.is.lab1.service;
+
+import org.springframework.data.domain.Sort;
+import ru.itmo.is.lab1.entity.Worker;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.Set;
+
+/**
+ * Курсор keyset-пагинации работников: значение поля сортировки и ID последней записи страницы.
+ * Передаётся клиенту в непрозрачном виде (Base64 URL), вместе с полем и направлением сортировки,
+ * чтобы курсор нельзя было применить к другой сортировке.
+ */
+public record WorkerCursor(String sortBy, Sort.Direction direction, Comparable<?> sortValue, Long id) {
+
+    /**
+     * Поля, по которым доступна keyset-пагинация: только NOT NULL колонки,
+     * иначе условие "после курсора" теряет строки с NULL.
+     */
+    public static final Set<String> SORTABLE_FIELDS = Set.of("id", "name", "salary", "creationDate", "startDate");
+
+    private static final String SEPARATOR = ",";
+
+    public static void checkSortable(String sortBy) {
+        if (!SORTABLE_FIELDS.contains(sortBy)) {
+            throw new IllegalArgumentException(
+                    "Курсорная пагинация поддерживает сортировку только по полям: " + SORTABLE_FIELDS);
+        }
+    }
+
+    /**
+     * Курсор, указывающий на позицию сразу после данного работника.
+     */
+    public static WorkerCursor after(Worker worker, String sortBy, Sort.Direction direction) {
+        Comparable<?> value = switch (sortBy) {
+            case "id" -> worker.getId();
+            case "name" -> worker.getName();
+            case "salary" -> worker.getSalary();
+            case "creationDate" -> worker.getCreationDate();
+            case "startDate" -> toSqlDate(worker.getStartDate());
+            default -> throw new IllegalArgumentException("Неподдерживаемое поле сортировки: " + sortBy);
+        };
+        return new WorkerCursor(sortBy, direction, value, worker.getId());
+    }
+
+    public String encode() {
+        String raw = sortBy + SEPARATOR + direction.name() + SEPARATOR + id + SEPARATOR + formatValue();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Разбирает курсор и проверяет, что он выдан для той же сортировки.
+     */
+    public static WorkerCursor decode(String token, String sortBy, Sort.Direction direction) {
+        String[] parts;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // Значение идёт последним и может само содержать разделитель
+            parts = raw.split(SEPARATOR, 4);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Некорректный курсор");
+        }
+
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Некорректный курсор");
+        }
+        if (!parts[0].equals(sortBy) || !parts[1].equals(direction.name())) {
+            throw new IllegalArgumentException("Курсор выдан для другой сортировки");
+        }
+
+        try {
+            Long id = Long.parseLong(parts[2]);
+            return new WorkerCursor(sortBy, direction, parseValue(sortBy, parts[3]), id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Некорректный курсор");
+        }
+    }
+
+    private String formatValue() {
+        if (sortValue instanceof java.sql.Date date) {
+            return date.toLocalDate().toString();
+        }
+        return String.valueOf(sortValue);
+    }
+
+    private static Comparable<?> parseValue(String sortBy, String value) {
+        return switch (sortBy) {
+            case "id", "salary" -> Long.parseLong(value);
+            case "name" -> value;
+            case "creationDate" -> LocalDate.parse(value);
+            case "startDate" -> java.sql.Date.valueOf(LocalDate.parse(value));
+            default -> throw new IllegalArgumentException("Неподдерживаемое поле сортировки: " + sortBy);
+        };
+    }
+
+    private static java.sql.Date toSqlDate(java.util.Date date) {
+        if (date instanceof java.sql.Date sqlDate) {
+            return sqlDate;
+        }
+        return new java.sql.Date(date.getTime());
+    }
+}
@@ -0,0 +1,214 @@
+package ru.itmo.is.lab1.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.itmo.is.lab1.dto.WorkerDTO;
+import ru.itmo.is.lab1.dto.WorkerEventBatchDTO;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Публикация изменений работников через WebSocket пачками.
+ *
+ * События накапливаются в течение короткого окна (workers.events.flush-interval-ms),
+ * повторные изменения одного работника схлопываются, а готовая пачка отправляется
+ * в /topic/workers/batch из собственного потока, а не из потока запроса.
+ * Поток отдельный от общего планировщика @Scheduled: долгие фоновые задачи (сверка MinIO,
+ * опрос outbox) не задерживают отправку пачек дольше окна.
+ * В транзакции события попадают в буфер только после коммита; при откате отбрасываются.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WorkerEventPublisher {
+
+    public static final String BATCH_TOPIC = "/topic/workers/batch";
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    /**
+     * Максимальное количество работников в одной пачке. При переполнении вместо
+     * списков отправляется признак reload, чтобы буфер не рос вместе с размером импорта.
+     */
+    @Value("${workers.events.max-batch-size:500}")
+    private int maxBatchSize;
+
+    @Value("${workers.events.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    private final ScheduledExecutorService flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "worker-events-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Object lock = new Object();
+
+    private Map<Long, WorkerEvent> pending = new LinkedHashMap<>();
+
+    private boolean overflow = false;
+
+    public void created(WorkerDTO worker) {
+        enqueue(new WorkerEvent(worker.getId(), EventType.CREATED, worker));
+    }
+
+    public void updated(WorkerDTO worker) {
+        enqueue(new WorkerEvent(worker.getId(), EventType.UPDATED, worker));
+    }
+
+    public void deleted(Long id) {
+        enqueue(new WorkerEvent(id, EventType.DELETED, null));
+    }
+
+    public void deleted(Collection<Long> ids) {
+        ids.forEach(this::deleted);
+    }
+
+    private void enqueue(WorkerEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            synchronized (lock) {
+                mergePending(Map.of(event.id(), event), false);
+            }
+            return;
+        }
+
+        EventBuffer buffer = (EventBuffer) TransactionSynchronizationManager.getResource(this);
+        if (buffer == null) {
+            EventBuffer registered = new EventBuffer();
+            TransactionSynchronizationManager.bindResource(this, registered);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    synchronized (lock) {
+                        mergePending(registered.events, registered.overflow);
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(WorkerEventPublisher.this);
+                }
+            });
+            buffer = registered;
+        }
+
+        if (!buffer.overflow) {
+            coalesce(buffer.events, event);
+            if (buffer.events.size() > maxBatchSize) {
+                buffer.overflow = true;
+                buffer.events.clear();
+            }
+        }
+    }
+
+    private void mergePending(Map<Long, WorkerEvent> events, boolean eventsOverflow) {
+        if (overflow) {
+            return;
+        }
+        if (eventsOverflow) {
+            overflow = true;
+            pending.clear();
+            return;
+        }
+        events.values().forEach(event -> coalesce(pending, event));
+        if (pending.size() > maxBatchSize) {
+            overflow = true;
+            pending.clear();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        flushScheduler.scheduleWithFixedDelay(() -> {
+            // Исключение остановило бы все следующие запуски
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.warn("Ошибка отправки пачки изменений работников: {}", e.getMessage());
+            }
+        }, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void stop() {
+        flushScheduler.shutdown();
+    }
+
+    /**
+     * Отправляет накопленные за окно изменения одной пачкой.
+     */
+    public void flush() {
+        Map<Long, WorkerEvent> events;
+        boolean reload;
+        synchronized (lock) {
+            if (pending.isEmpty() && !overflow) {
+                return;
+            }
+            events = pending;
+            reload = overflow;
+            pending = new LinkedHashMap<>();
+            overflow = false;
+        }
+
+        WorkerEventBatchDTO batch = new WorkerEventBatchDTO();
+        batch.setReload(reload);
+        for (WorkerEvent event : events.values()) {
+            switch (event.type()) {
+                case CREATED -> batch.getCreated().add(event.worker());
+                case UPDATED -> batch.getUpdated().add(event.worker());
+                case DELETED -> batch.getDeleted().add(event.id());
+            }
+        }
+
+        try {
+            messagingTemplate.convertAndSend(BATCH_TOPIC, batch);
+        } catch (Exception e) {
+            log.warn("Не удалось отправить пачку изменений работников: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Схлопывает событие с уже накопленным для того же работника:
+     * создание + изменение = создание с последним состоянием,
+     * создание + удаление = ничего, в остальных случаях побеждает последнее событие.
+     */
+    private static void coalesce(Map<Long, WorkerEvent> events, WorkerEvent event) {
+        WorkerEvent previous = events.get(event.id());
+        if (previous != null && previous.type() == EventType.CREATED) {
+            if (event.type() == EventType.DELETED) {
+                events.remove(event.id());
+                return;
+            }
+            if (event.type() == EventType.UPDATED) {
+                events.put(event.id(), new WorkerEvent(event.id(), EventType.CREATED, event.worker()));
+                return;
+            }
+        }
+        events.put(event.id(), event);
+    }
+
+    private enum EventType {
+        CREATED, UPDATED, DELETED
+    }
+
+    private record WorkerEvent(Long id, EventType type, WorkerDTO worker) {
+    }
+
+    private static class EventBuffer {
+        private final Map<Long, WorkerEvent> events = new LinkedHashMap<>();
+        private boolean overflow;
+    }
+}
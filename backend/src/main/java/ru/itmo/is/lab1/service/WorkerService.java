@@ -4,10 +4,11 @@ import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.itmo.is.lab1.dto.CursorPageResponse;
 import ru.itmo.is.lab1.dto.PageResponse;
 import ru.itmo.is.lab1.dto.WorkerDTO;
 import ru.itmo.is.lab1.entity.Organization;
@@ -16,7 +17,9 @@ import ru.itmo.is.lab1.repository.OrganizationRepository;
 import ru.itmo.is.lab1.repository.WorkerRepository;
 import ru.itmo.is.lab1.specification.WorkerSpecification;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,8 +29,18 @@ public class WorkerService {
     private final WorkerRepository workerRepository;
     private final OrganizationRepository organizationRepository;
     private final MapperService mapperService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final WorkerEventPublisher eventPublisher;
     private final WorkerValidationService validationService;
+    private final RatingSumTracker ratingSumTracker;
+    private final UniquenessLockManager uniquenessLockManager;
+    private final QueryResultCache queryResultCache;
+
+    /**
+     * Ключ страницы в {@link QueryResultCache}. Фильтры сравниваются без учёта регистра,
+     * пустой фильтр равен отсутствующему - как в {@link WorkerSpecification}.
+     */
+    private record WorkerPageKey(String name, String position, String status, int page, int size, String sort) {
+    }
 
     @Transactional(readOnly = true)
     public WorkerDTO getById(Long id) {
@@ -56,21 +69,22 @@ public class WorkerService {
         return response;
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Страница работников с фильтрами. Повторные запросы той же страницы отдаются
+     * из {@link QueryResultCache} без обращения к БД.
+     */
     public PageResponse<WorkerDTO> getAll(Pageable pageable, String filterName, String filterPosition, String filterStatus) {
-        Specification<Worker> spec = Specification.where(null);
-        
-        if (filterName != null && !filterName.trim().isEmpty()) {
-            spec = spec.and(WorkerSpecification.filterByName(filterName));
-        }
-        
-        if (filterPosition != null && !filterPosition.trim().isEmpty()) {
-            spec = spec.and(WorkerSpecification.filterByPosition(filterPosition));
-        }
-        
-        if (filterStatus != null && !filterStatus.trim().isEmpty()) {
-            spec = spec.and(WorkerSpecification.filterByStatus(filterStatus));
-        }
+        WorkerPageKey key = new WorkerPageKey(normalizeFilter(filterName), normalizeFilter(filterPosition),
+                normalizeFilter(filterStatus), pageable.getPageNumber(), pageable.getPageSize(),
+                pageable.getSort().toString());
+        return queryResultCache.get(QueryResultCache.Region.WORKER_PAGES, key,
+                () -> loadPage(pageable, filterName, filterPosition, filterStatus),
+                this::pageDependencies);
+    }
+
+    private PageResponse<WorkerDTO> loadPage(Pageable pageable, String filterName, String filterPosition,
+                                             String filterStatus) {
+        Specification<Worker> spec = buildFilterSpecification(filterName, filterPosition, filterStatus);
         
         Page<Worker> page = workerRepository.findAll(spec, pageable);
         
@@ -90,8 +104,83 @@ public class WorkerService {
         return response;
     }
 
+    /**
+     * Keyset-пагинация: страница работников после курсора {@code after} без OFFSET и без COUNT.
+     * Пустой курсор означает первую страницу. Сортировка дополняется id как tie-breaker.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<WorkerDTO> getAllAfter(String after, int size, String sortBy, Sort.Direction direction,
+                                                     String filterName, String filterPosition, String filterStatus) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Размер страницы должен быть больше 0");
+        }
+        String sortField = sortBy != null ? sortBy : "id";
+        WorkerCursor.checkSortable(sortField);
+
+        Specification<Worker> spec = buildFilterSpecification(filterName, filterPosition, filterStatus);
+
+        if (after != null && !after.isBlank()) {
+            WorkerCursor cursor = WorkerCursor.decode(after, sortField, direction);
+            spec = spec.and(WorkerSpecification.after(
+                    sortField, direction.isDescending(), cursor.sortValue(), cursor.id()));
+        }
+
+        Sort sort = "id".equals(sortField)
+                ? Sort.by(direction, "id")
+                : Sort.by(direction, sortField).and(Sort.by(direction, "id"));
+
+        // Запрашиваем на одну запись больше, чтобы узнать, есть ли следующая страница
+        List<Worker> workers = workerRepository.findAllSeek(spec, sort, size + 1);
+        boolean hasNext = workers.size() > size;
+        if (hasNext) {
+            workers = workers.subList(0, size);
+        }
+
+        String nextCursor = hasNext
+                ? WorkerCursor.after(workers.get(workers.size() - 1), sortField, direction).encode()
+                : null;
+
+        List<WorkerDTO> content = workers.stream()
+                .map(mapperService::toDTO)
+                .collect(Collectors.toList());
+
+        return new CursorPageResponse<>(content, size, nextCursor, !hasNext);
+    }
+
+    private Set<String> pageDependencies(PageResponse<WorkerDTO> page) {
+        Set<String> dependencies = new HashSet<>();
+        page.getContent().forEach(worker -> mapperService.collectDependencies(worker, dependencies));
+        return dependencies;
+    }
+
+    private static String normalizeFilter(String filter) {
+        return filter == null || filter.trim().isEmpty() ? null : filter.toLowerCase();
+    }
+
+    private Specification<Worker> buildFilterSpecification(String filterName, String filterPosition, String filterStatus) {
+        Specification<Worker> spec = Specification.where(null);
+        
+        if (filterName != null && !filterName.trim().isEmpty()) {
+            spec = spec.and(WorkerSpecification.filterByName(filterName));
+        }
+        
+        if (filterPosition != null && !filterPosition.trim().isEmpty()) {
+            spec = spec.and(WorkerSpecification.filterByPosition(filterPosition));
+        }
+        
+        if (filterStatus != null && !filterStatus.trim().isEmpty()) {
+            spec = spec.and(WorkerSpecification.filterByStatus(filterStatus));
+        }
+
+        return spec;
+    }
+
     @Transactional
     public WorkerDTO create(WorkerDTO workerDTO) {
+        // Блокировки на ключи уникальности держатся до коммита: проверка и вставка
+        // конкурирующих записей с теми же ключами выполняются по очереди
+        uniquenessLockManager.lock(validationService.uniquenessLockKeys(workerDTO));
+
         // Валидация бизнес-правил уникальности
         validationService.validateWorker(workerDTO, null);
         
@@ -104,9 +193,10 @@ public class WorkerService {
         }
         
         Worker savedWorker = workerRepository.save(worker);
+        ratingSumTracker.add(ratingOf(savedWorker));
         WorkerDTO result = mapperService.toDTO(savedWorker);
         
-        messagingTemplate.convertAndSend("/topic/workers/created", result);
+        eventPublisher.created(result);
         
         return result;
     }
@@ -115,8 +205,10 @@ public class WorkerService {
     public WorkerDTO update(Long id, WorkerDTO workerDTO) {
         Worker existingWorker = workerRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Работник с ID " + id + " не найден"));
+        long previousRating = ratingOf(existingWorker);
         
         // Валидация бизнес-правил уникальности (исключая текущего работника)
+        uniquenessLockManager.lock(validationService.uniquenessLockKeys(workerDTO));
         validationService.validateWorker(workerDTO, id);
         
         Worker updatedWorker = mapperService.toEntity(workerDTO);
@@ -130,40 +222,37 @@ public class WorkerService {
         }
         
         Worker savedWorker = workerRepository.save(updatedWorker);
+        ratingSumTracker.add(ratingOf(savedWorker) - previousRating);
         WorkerDTO result = mapperService.toDTO(savedWorker);
         
-        messagingTemplate.convertAndSend("/topic/workers/updated", result);
+        eventPublisher.updated(result);
         
         return result;
     }
 
     @Transactional
     public void delete(Long id) {
-        if (!workerRepository.existsById(id)) {
-            throw new EntityNotFoundException("Работник с ID " + id + " не найден");
-        }
-        workerRepository.deleteById(id);
+        Worker worker = workerRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Работник с ID " + id + " не найден"));
+        workerRepository.delete(worker);
+        ratingSumTracker.add(-ratingOf(worker));
         
-        messagingTemplate.convertAndSend("/topic/workers/deleted", id);
+        eventPublisher.deleted(id);
     }
 
     @Transactional
     public void deleteByRating(Integer rating) {
-        List<Worker> workers = workerRepository.findByRating(rating);
-        workerRepository.deleteAll(workers);
-        
-        workers.forEach(worker ->
-            messagingTemplate.convertAndSend("/topic/workers/deleted", worker.getId())
-        );
+        List<Long> deletedIds = workerRepository.deleteByRatingReturningIds(rating);
+        ratingSumTracker.add(-(long) rating * deletedIds.size());
+        eventPublisher.deleted(deletedIds);
     }
 
     @Transactional(readOnly = true)
     public Long sumRating() {
-        List<Worker> workers = workerRepository.findAll();
-        return workers.stream()
-                .filter(w -> w.getRating() != null)
-                .mapToLong(Worker::getRating)
-                .sum();
+        if (ratingSumTracker.isAvailable()) {
+            return ratingSumTracker.get();
+        }
+        return workerRepository.sumRating();
     }
 
     @Transactional(readOnly = true)
@@ -184,6 +273,9 @@ public class WorkerService {
         
         // Проверка уникальности: имя + должность + организация
         if (worker.getName() != null && worker.getPosition() != null) {
+            uniquenessLockManager.lock(List.of(validationService.namePositionOrganizationLockKey(
+                    worker.getName(), worker.getPosition(), organizationId)));
+
             List<Worker> duplicates = workerRepository.findByNameAndPositionAndOrganizationId(
                     worker.getName(), worker.getPosition(), organizationId);
             
@@ -205,7 +297,7 @@ public class WorkerService {
         Worker savedWorker = workerRepository.save(worker);
         WorkerDTO result = mapperService.toDTO(savedWorker);
         
-        messagingTemplate.convertAndSend("/topic/workers/updated", result);
+        eventPublisher.updated(result);
         
         return result;
     }
@@ -225,9 +317,12 @@ public class WorkerService {
         Worker savedWorker = workerRepository.save(worker);
         WorkerDTO result = mapperService.toDTO(savedWorker);
         
-        messagingTemplate.convertAndSend("/topic/workers/updated", result);
+        eventPublisher.updated(result);
         
         return result;
     }
-}
 
+    private static long ratingOf(Worker worker) {
+        return worker.getRating() != null ? worker.getRating() : 0;
+    }
+}
@@ -4,12 +4,23 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.itmo.is.lab1.dto.WorkerDTO;
+import ru.itmo.is.lab1.entity.Position;
 import ru.itmo.is.lab1.entity.Worker;
 import ru.itmo.is.lab1.repository.WorkerRepository;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 /**
  * Сервис для валидации бизнес-правил уникальности работников.
@@ -43,10 +54,7 @@ public class WorkerValidationService {
                 .anyMatch(w -> excludeId == null || !w.getId().equals(excludeId));
 
         if (hasDuplicate) {
-            throw new RuntimeException(
-                    "Работник с именем '" + workerDTO.getName() + 
-                    "' и датой начала работы уже существует. " +
-                    "Комбинация имени и даты начала работы должна быть уникальной.");
+            throw new RuntimeException(duplicateNameStartDateMessage(workerDTO));
         }
     }
 
@@ -70,10 +78,7 @@ public class WorkerValidationService {
                 .anyMatch(w -> excludeId == null || !w.getId().equals(excludeId));
 
         if (hasDuplicate) {
-            throw new RuntimeException(
-                    "Работник '" + workerDTO.getName() + "' уже занимает должность " + 
-                    workerDTO.getPosition() + " в данной организации. " +
-                    "Один человек не может занимать одну должность в одной организации дважды.");
+            throw new RuntimeException(duplicateNamePositionOrganizationMessage(workerDTO));
         }
     }
 
@@ -86,23 +91,131 @@ public class WorkerValidationService {
     }
 
     /**
-     * Валидация работника при импорте с указанием номера строки для сообщений об ошибках.
+     * Пакетная валидация пачки строк импорта.
+     * Ключи уникальности (имя + дата начала, имя + должность + организация) всей пачки
+     * проверяются в БД двумя запросами на пачку вместо двух запросов на каждую строку.
+     *
+     * @return ошибки по номерам строк исходного файла в порядке строк (пустая карта, если пачка валидна)
      */
-    public void validateWorkerForImport(WorkerDTO workerDTO, int rowNumber) {
-        try {
-            // Проверка базовой валидации
-            validateBasicFields(workerDTO, rowNumber);
-            
-            // Проверка уникальности в БД
-            validateUniqueNameAndStartDate(workerDTO, null);
-            validateUniqueNamePositionOrganization(workerDTO, null);
-            
-            // Проверка уникальности в рамках текущего импорта
-            validateUniqueInCurrentImport(workerDTO, rowNumber);
-            
-        } catch (RuntimeException e) {
-            throw new RuntimeException("Строка " + rowNumber + ": " + e.getMessage());
+    public Map<Integer, String> validateImportChunk(List<ImportRow> rows) {
+        Map<Integer, String> errors = new TreeMap<>();
+        List<ImportRow> checkedRows = new ArrayList<>(rows.size());
+
+        for (ImportRow row : rows) {
+            try {
+                // Проверка базовой валидации
+                validateBasicFields(row.worker(), row.rowNumber());
+
+                // Проверка уникальности в рамках текущего импорта
+                validateUniqueInCurrentImport(row.worker(), row.rowNumber());
+
+                checkedRows.add(row);
+            } catch (RuntimeException e) {
+                errors.put(row.rowNumber(), e.getMessage());
+            }
+        }
+
+        if (checkedRows.isEmpty()) {
+            return errors;
+        }
+
+        // Проверка уникальности в БД
+        Set<NameStartDateKey> existingNameStartDates = findExistingNameStartDates(checkedRows);
+        Set<NamePositionOrganizationKey> existingPositions = findExistingNamePositionOrganizations(checkedRows);
+
+        for (ImportRow row : checkedRows) {
+            WorkerDTO workerDTO = row.worker();
+            NamePositionOrganizationKey positionKey = NamePositionOrganizationKey.of(workerDTO);
+
+            if (existingNameStartDates.contains(NameStartDateKey.of(workerDTO))) {
+                errors.put(row.rowNumber(), duplicateNameStartDateMessage(workerDTO));
+            } else if (positionKey != null && existingPositions.contains(positionKey)) {
+                errors.put(row.rowNumber(), duplicateNamePositionOrganizationMessage(workerDTO));
+            }
+        }
+
+        return errors;
+    }
+
+    /**
+     * Ключи блокировок уникальности для всех правил, применимых к строкам пачки
+     * (см. {@link UniquenessLockManager}).
+     */
+    public Set<Long> uniquenessLockKeys(List<ImportRow> rows) {
+        Set<Long> keys = new TreeSet<>();
+        for (ImportRow row : rows) {
+            keys.addAll(uniquenessLockKeys(row.worker()));
+        }
+        return keys;
+    }
+
+    /**
+     * Ключи блокировок уникальности для одного работника: (имя, дата начала работы)
+     * и, если работник в организации, (имя, должность, организация).
+     */
+    public Set<Long> uniquenessLockKeys(WorkerDTO workerDTO) {
+        Set<Long> keys = new TreeSet<>();
+        if (workerDTO.getName() == null) {
+            return keys;
+        }
+        if (workerDTO.getStartDate() != null) {
+            keys.add(NameStartDateKey.of(workerDTO).lockKey());
         }
+        NamePositionOrganizationKey positionKey = NamePositionOrganizationKey.of(workerDTO);
+        if (positionKey != null) {
+            keys.add(positionKey.lockKey());
+        }
+        return keys;
+    }
+
+    /**
+     * Ключ блокировки правила (имя, должность, организация) - для приёма работника в организацию.
+     */
+    public long namePositionOrganizationLockKey(String name, Position position, Long organizationId) {
+        return new NamePositionOrganizationKey(name, position, organizationId).lockKey();
+    }
+
+    /**
+     * Находит уже существующие в БД пары (имя, дата начала работы) среди строк пачки.
+     * Запрос по IN-спискам возвращает надмножество, точные пары отбираются в памяти.
+     */
+    private Set<NameStartDateKey> findExistingNameStartDates(List<ImportRow> rows) {
+        Set<String> names = new HashSet<>();
+        Set<Date> startDates = new HashSet<>();
+        for (ImportRow row : rows) {
+            names.add(row.worker().getName());
+            startDates.add(row.worker().getStartDate());
+        }
+
+        Set<NameStartDateKey> existing = new HashSet<>();
+        for (Object[] tuple : workerRepository.findNameAndStartDatePairs(names, startDates)) {
+            existing.add(new NameStartDateKey((String) tuple[0], toLocalDate((Date) tuple[1])));
+        }
+        return existing;
+    }
+
+    /**
+     * Находит уже существующие в БД тройки (имя, должность, организация) среди строк пачки.
+     */
+    private Set<NamePositionOrganizationKey> findExistingNamePositionOrganizations(List<ImportRow> rows) {
+        Set<String> names = new HashSet<>();
+        Set<Long> organizationIds = new HashSet<>();
+        for (ImportRow row : rows) {
+            if (NamePositionOrganizationKey.of(row.worker()) != null) {
+                names.add(row.worker().getName());
+                organizationIds.add(row.worker().getOrganization().getId());
+            }
+        }
+
+        if (names.isEmpty()) {
+            return Set.of();
+        }
+
+        Set<NamePositionOrganizationKey> existing = new HashSet<>();
+        for (Object[] tuple : workerRepository.findNamePositionOrganizationTriples(names, organizationIds)) {
+            existing.add(new NamePositionOrganizationKey((String) tuple[0], (Position) tuple[1], (Long) tuple[2]));
+        }
+        return existing;
     }
 
     /**
@@ -168,5 +281,73 @@ public class WorkerValidationService {
     public void clearImportCache() {
         importNameCache.remove();
     }
+
+    private static String duplicateNameStartDateMessage(WorkerDTO workerDTO) {
+        return "Работник с именем '" + workerDTO.getName() +
+                "' и датой начала работы уже существует. " +
+                "Комбинация имени и даты начала работы должна быть уникальной.";
+    }
+
+    private static String duplicateNamePositionOrganizationMessage(WorkerDTO workerDTO) {
+        return "Работник '" + workerDTO.getName() + "' уже занимает должность " +
+                workerDTO.getPosition() + " в данной организации. " +
+                "Один человек не может занимать одну должность в одной организации дважды.";
+    }
+
+    /**
+     * Приводит дату к календарному дню так же, как это делает JDBC при записи в колонку DATE.
+     */
+    private static LocalDate toLocalDate(Date date) {
+        if (date instanceof java.sql.Date sqlDate) {
+            return sqlDate.toLocalDate();
+        }
+        return new java.sql.Date(date.getTime()).toLocalDate();
+    }
+
+    /**
+     * 64-битный ключ блокировки: первые 8 байт SHA-256 от строкового представления ключа.
+     * Коллизия лишь заставляет две транзакции подождать друг друга.
+     */
+    private static long hashLockKey(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+
+    /**
+     * Строка файла импорта: номер строки в исходном файле и её содержимое.
+     */
+    public record ImportRow(int rowNumber, WorkerDTO worker) {}
+
+    private record NameStartDateKey(String name, LocalDate startDate) {
+        static NameStartDateKey of(WorkerDTO workerDTO) {
+            return new NameStartDateKey(workerDTO.getName(), toLocalDate(workerDTO.getStartDate()));
+        }
+
+        long lockKey() {
+            return hashLockKey("name-start-date|" + name + "|" + startDate);
+        }
+    }
+
+    private record NamePositionOrganizationKey(String name, Position position, Long organizationId) {
+        /**
+         * @return ключ или null, если правило уникальности к работнику не применяется
+         */
+        static NamePositionOrganizationKey of(WorkerDTO workerDTO) {
+            if (workerDTO.getPosition() == null || workerDTO.getOrganization() == null
+                    || workerDTO.getOrganization().getId() == null) {
+                return null;
+            }
+            return new NamePositionOrganizationKey(
+                    workerDTO.getName(), workerDTO.getPosition(), workerDTO.getOrganization().getId());
+        }
+
+        long lockKey() {
+            return hashLockKey("name-position-organization|" + name + "|" + position + "|" + organizationId);
+        }
+    }
 }
 
@@ -1,5 +1,6 @@
 package ru.itmo.is.lab1.specification;
 
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Predicate;
 import org.springframework.data.jpa.domain.Specification;
 import ru.itmo.is.lab1.entity.*;
@@ -92,6 +93,32 @@ public class WorkerSpecification {
             return criteriaBuilder.like(criteriaBuilder.lower(root.get("status").as(String.class)), pattern);
         };
     }
-}
 
+    /**
+     * Условие keyset-пагинации: записи строго после курсора в порядке (sortBy, id).
+     * ID используется как tie-breaker, поэтому сортировка должна включать id вторым ключом.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Specification<Worker> after(String sortBy, boolean descending, Comparable sortValue, Long id) {
+        return (root, query, criteriaBuilder) -> {
+            Expression<Long> idPath = root.get("id");
+            Predicate idBeyond = descending
+                    ? criteriaBuilder.lessThan(idPath, id)
+                    : criteriaBuilder.greaterThan(idPath, id);
+
+            if ("id".equals(sortBy)) {
+                return idBeyond;
+            }
+
+            Expression<Comparable> sortPath = root.get(sortBy);
+            Predicate sortBeyond = descending
+                    ? criteriaBuilder.lessThan(sortPath, sortValue)
+                    : criteriaBuilder.greaterThan(sortPath, sortValue);
 
+            return criteriaBuilder.or(
+                    sortBeyond,
+                    criteriaBuilder.and(criteriaBuilder.equal(sortPath, sortValue), idBeyond)
+            );
+        };
+    }
+}
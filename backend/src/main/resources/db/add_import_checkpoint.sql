@@ -0,0 +1,5 @@
+-- Режим импорта и контрольная точка для импорта с промежуточными коммитами (CHUNKED).
+-- Нужны для окружений с ddl-auto: none (helios).
+
+ALTER TABLE import_history ADD COLUMN IF NOT EXISTS import_mode VARCHAR(255);
+ALTER TABLE import_history ADD COLUMN IF NOT EXISTS checkpoint_row INTEGER;
@@ -0,0 +1,22 @@
+-- Outbox фазы COMMIT двухфазного коммита файлов импорта (StorageCommitOutbox).
+-- Нужна для окружений с ddl-auto: none (helios).
+
+CREATE TABLE IF NOT EXISTS storage_commit_outbox (
+    id BIGINT PRIMARY KEY,
+    pending_object_name VARCHAR(1024) NOT NULL UNIQUE,
+    attempts INTEGER NOT NULL,
+    next_attempt_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    last_error VARCHAR(2000),
+    failed_at TIMESTAMP
+);
+
+-- Конечное состояние задачи после minio.commit-outbox.max-attempts попыток
+ALTER TABLE storage_commit_outbox ADD COLUMN IF NOT EXISTS failed_at TIMESTAMP;
+
+-- ID выдаются последовательностью с шагом 50 (pooled optimizer, как у остальных сущностей);
+-- первый nextval должен вернуть MAX(id) + 50, см. create_sequences.sql
+CREATE SEQUENCE IF NOT EXISTS storage_commit_outbox_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('storage_commit_outbox_seq', COALESCE((SELECT MAX(id) FROM storage_commit_outbox), 0) + 50, false);
+
+CREATE INDEX IF NOT EXISTS idx_storage_commit_outbox_next_attempt_at ON storage_commit_outbox (next_attempt_at);
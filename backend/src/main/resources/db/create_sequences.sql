@@ -0,0 +1,21 @@
+-- Последовательности для SEQUENCE-генерации ID (allocationSize = 50, pooled optimizer).
+-- Нужны для окружений с ddl-auto: none (helios). Значения выставляются выше текущих
+-- максимальных ID, чтобы не пересечься со строками, созданными через IDENTITY.
+-- Pooled optimizer считает значение nextval верхней границей блока и выдаёт ID
+-- с (nextval - 49), поэтому первый nextval должен вернуть MAX(id) + 50 (is_called = false).
+-- При запуске SequenceInitializer проверяет, что последовательности существуют, и сдвигает
+-- отстающие от MAX(id) вперёд (в том числе созданные ddl-auto: update со значения 1).
+
+CREATE SEQUENCE IF NOT EXISTS coordinates_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS location_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS person_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS address_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS organization_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS worker_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('coordinates_seq', COALESCE((SELECT MAX(id) FROM coordinates), 0) + 50, false);
+SELECT setval('location_seq', COALESCE((SELECT MAX(id) FROM location), 0) + 50, false);
+SELECT setval('person_seq', COALESCE((SELECT MAX(id) FROM person), 0) + 50, false);
+SELECT setval('address_seq', COALESCE((SELECT MAX(id) FROM address), 0) + 50, false);
+SELECT setval('organization_seq', COALESCE((SELECT MAX(id) FROM organization), 0) + 50, false);
+SELECT setval('worker_seq', COALESCE((SELECT MAX(id) FROM worker), 0) + 50, false);
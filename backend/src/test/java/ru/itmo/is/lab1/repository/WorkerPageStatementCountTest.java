@@ -0,0 +1,147 @@
+package ru.itmo.is.lab1.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.TestPropertySource;
+import ru.itmo.is.lab1.dto.WorkerDTO;
+import ru.itmo.is.lab1.entity.*;
+import ru.itmo.is.lab1.service.CacheInvalidationBus;
+import ru.itmo.is.lab1.service.MapperService;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Страница работников с графом {@link Worker#FULL_GRAPH} загружается фиксированным числом запросов
+ * (SELECT с join-ами + COUNT), сколько бы разных организаций, персон и координат на ней ни было.
+ */
+@DataJpaTest
+@Import({MapperService.class, CacheInvalidationBus.class, WorkerPageStatementCountTest.MetricsConfig.class})
+@TestPropertySource(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "cache.invalidation.enabled=false"
+})
+class WorkerPageStatementCountTest {
+
+    private static final int WORKERS = 25;
+    private static final int PAGE_SIZE = 10;
+
+    @TestConfiguration
+    static class MetricsConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private WorkerRepository workerRepository;
+
+    @Autowired
+    private MapperService mapperService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < WORKERS; i++) {
+            testEntityManager.persist(worker(i));
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        // Связи должны читаться из БД, а не из L2 кэша, заполненного при сохранении
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @Test
+    void pageWithAllAssociationsIsLoadedWithoutNPlusOne() {
+        Page<Worker> page = workerRepository.findAll(Specification.<Worker>where(null),
+                PageRequest.of(0, PAGE_SIZE, Sort.by("id")));
+        // Обходит все связи, как ответ GET /api/workers
+        List<WorkerDTO> content = page.getContent().stream().map(mapperService::toDTO).toList();
+
+        assertThat(content).hasSize(PAGE_SIZE);
+        assertThat(content).allSatisfy(worker -> {
+            assertThat(worker.getOrganization().getPostalAddress()).isNotNull();
+            assertThat(worker.getPerson().getLocation()).isNotNull();
+        });
+        assertThat(page.getTotalElements()).isEqualTo(WORKERS);
+        // SELECT страницы и COUNT; каждая ленивая связь дала бы ещё по запросу на работника
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+    }
+
+    private static Worker worker(int i) {
+        Address officialAddress = new Address();
+        officialAddress.setStreet("Official " + i);
+        officialAddress.setZipCode("1000" + i);
+
+        Address postalAddress = new Address();
+        postalAddress.setStreet("Postal " + i);
+        postalAddress.setZipCode("2000" + i);
+
+        Organization organization = new Organization();
+        organization.setOfficialAddress(officialAddress);
+        organization.setPostalAddress(postalAddress);
+        organization.setAnnualTurnover(1000 + i);
+        organization.setEmployeesCount(10 + i);
+        organization.setRating(1L + i);
+        organization.setType(OrganizationType.COMMERCIAL);
+
+        Location location = new Location();
+        location.setX(i);
+        location.setY((long) i);
+        location.setName("Location " + i);
+
+        Person person = new Person();
+        person.setEyeColor(Color.GREEN);
+        person.setHairColor(Color.BLACK);
+        person.setLocation(location);
+        person.setBirthday(LocalDate.of(1990, 1, 1));
+        person.setHeight(170);
+
+        Coordinates coordinates = new Coordinates();
+        coordinates.setX(i);
+        coordinates.setY(i);
+
+        Worker worker = new Worker();
+        worker.setName("Worker " + i);
+        worker.setCoordinates(coordinates);
+        worker.setOrganization(organization);
+        worker.setSalary(1000 + i);
+        worker.setRating(1 + i);
+        worker.setStartDate(new Date());
+        worker.setPosition(Position.values()[i % Position.values().length]);
+        worker.setStatus(Status.values()[i % Status.values().length]);
+        worker.setPerson(person);
+        return worker;
+    }
+}
@@ -0,0 +1,107 @@
+package ru.itmo.is.lab1.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.itmo.is.lab1.entity.Role;
+import ru.itmo.is.lab1.entity.User;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка JWT одного запроса:
+ * - baseline - как до выноса ключа и парсера в поля JwtService: на каждый разбор заново
+ *   создаются ключ и парсер, токен разбирается трижды (extractUsername, затем isTokenValid);
+ * - withoutCache - ключ и парсер созданы один раз, токен разбирается один раз;
+ * - withCache - то же с кэшем проверенных токенов (JwtAuthenticationFilter.authenticate в режиме stateless).
+ *
+ * Запуск: {@code mvn -Pjmh test-compile exec:exec}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "mySecretKeyForJwtTokenGenerationMustBe256BitsLongEnoughForHS256Algorithm";
+    private static final long EXPIRATION = 86400000;
+
+    private JwtService jwtService;
+    private VerifiedTokenCache verifiedTokenCache;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(SECRET, EXPIRATION);
+        verifiedTokenCache = new VerifiedTokenCache(10000, EXPIRATION);
+
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("benchmark");
+        user.setPassword("");
+        user.setRole(Role.USER);
+        user.setApproved(true);
+        token = jwtService.generateToken(new CustomUserDetails(user));
+    }
+
+    /**
+     * Прежний путь: extractUsername и isTokenValid (ещё extractUsername и isTokenExpired),
+     * каждый разбор со своими ключом и парсером.
+     */
+    @Benchmark
+    public boolean baseline() {
+        String username = parseWithNewParser(token).getSubject();
+        boolean valid = parseWithNewParser(token).getSubject().equals(username)
+                && !parseWithNewParser(token).getExpiration().before(new Date());
+        return valid;
+    }
+
+    private static Claims parseWithNewParser(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        return Jwts.parser()
+                .verifyWith(key)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    /**
+     * Проверка подписи и разбор claims на каждый запрос общими ключом и парсером.
+     */
+    @Benchmark
+    public CustomUserDetails withoutCache() {
+        Claims claims = jwtService.parseToken(token);
+        return jwtService.toPrincipal(claims);
+    }
+
+    /**
+     * Повторный запрос с тем же токеном: принципал из кэша, подпись не проверяется.
+     */
+    @Benchmark
+    public CustomUserDetails withCache() {
+        CustomUserDetails cached = verifiedTokenCache.get(token);
+        if (cached != null) {
+            return cached;
+        }
+        Claims claims = jwtService.parseToken(token);
+        CustomUserDetails principal = jwtService.toPrincipal(claims);
+        verifiedTokenCache.put(token, principal, claims.getIssuedAt(), claims.getExpiration());
+        return principal;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -274,7 +274,7 @@ const AdminPage = () => {
                     color="primary"
                   />
                 }
-                label="Логирование статистики кэша (AOP)"
+                label="Периодическое логирование статистики кэша"
               />
 
               <Divider sx={{ my: 2 }} />
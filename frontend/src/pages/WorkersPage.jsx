@@ -70,30 +70,37 @@ const WorkersPage = () => {
     // WebSocket подключение
     websocketService.connect();
 
-    const unsubscribeCreated = websocketService.onWorkerCreated((worker) => {
-      showSnackbar(`Создан новый работник: ${worker.name}`, 'info');
-      fetchWorkers();
-    });
-
-    const unsubscribeUpdated = websocketService.onWorkerUpdated((worker) => {
-      showSnackbar(`Обновлён работник: ${worker.name}`, 'info');
-      fetchWorkers();
-    });
-
-    const unsubscribeDeleted = websocketService.onWorkerDeleted((workerId) => {
-      showSnackbar(`Удалён работник ID: ${workerId}`, 'info');
+    const unsubscribeChanged = websocketService.onWorkersChanged((batch) => {
+      showSnackbar(describeBatch(batch), 'info');
       fetchWorkers();
     });
 
     return () => {
-      unsubscribeCreated();
-      unsubscribeUpdated();
-      unsubscribeDeleted();
+      unsubscribeChanged();
       websocketService.disconnect();
     };
     // eslint-disable-next-line react-hooks/exhaustive-deps
   }, []);
 
+  // Одно сообщение на пачку изменений из WebSocket
+  const describeBatch = (batch) => {
+    const { created, updated, deleted } = batch;
+    const total = created.length + updated.length + deleted.length;
+    if (batch.reload || total === 0) {
+      return 'Данные работников изменились';
+    }
+    if (total === 1) {
+      if (created.length === 1) return `Создан новый работник: ${created[0].name}`;
+      if (updated.length === 1) return `Обновлён работник: ${updated[0].name}`;
+      return `Удалён работник ID: ${deleted[0]}`;
+    }
+    const parts = [];
+    if (created.length > 0) parts.push(`создано: ${created.length}`);
+    if (updated.length > 0) parts.push(`обновлено: ${updated.length}`);
+    if (deleted.length > 0) parts.push(`удалено: ${deleted.length}`);
+    return `Изменения работников (${parts.join(', ')})`;
+  };
+
   const showSnackbar = (message, severity = 'success') => {
     setSnackbar({ open: true, message, severity });
   };
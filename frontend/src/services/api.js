@@ -61,6 +61,21 @@ export const importAPI = {
       },
     });
   },
+  // Асинхронный импорт: ответ приходит сразу, прогресс — через WebSocket /topic/imports/{id}
+  // mode: 'ATOMIC' (всё или ничего) или 'CHUNKED' (промежуточные коммиты с контрольной точкой)
+  importWorkersAsync: (file, mode = 'ATOMIC') => {
+    const formData = new FormData();
+    formData.append('file', file);
+    return api.post('/import/workers/async', formData, {
+      params: { mode },
+      headers: {
+        'Content-Type': 'multipart/form-data',
+      },
+    });
+  },
+  getJobStatus: (importId) => api.get(`/import/jobs/${importId}`),
+  // Продолжение неуспешного импорта CHUNKED с контрольной точки
+  resumeImport: (importId) => api.post(`/import/jobs/${importId}/resume`),
   getHistory: (page = 0, size = 10) => api.get('/import/history', { params: { page, size } }),
   // Скачивание файла импорта
   downloadFile: (historyId) => api.get(`/import/history/${historyId}/download`, {
@@ -121,6 +136,8 @@ export const cacheAPI = {
   getLoggingStatus: () => api.get('/cache/logging/status'),
   enableLogging: () => api.post('/cache/logging/enable'),
   disableLogging: () => api.post('/cache/logging/disable'),
+  getRegionStatistics: () => api.get('/cache/regions'),
+  resizeRegionHeap: (region, heapSize) => api.put(`/cache/regions/${encodeURIComponent(region)}/heap`, { heapSize }),
 };
 
 export default api;
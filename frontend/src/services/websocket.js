@@ -5,9 +5,7 @@ class WebSocketService {
   constructor() {
     this.client = null;
     this.subscribers = {
-      created: [],
-      updated: [],
-      deleted: [],
+      changed: [],
     };
   }
 
@@ -31,43 +29,26 @@ class WebSocketService {
   }
 
   subscribeToTopics() {
-    // Подписка на создание работников
-    this.client.subscribe('/topic/workers/created', (message) => {
-      const worker = JSON.parse(message.body);
-      this.notifySubscribers('created', worker);
-    });
-
-    // Подписка на обновление работников
-    this.client.subscribe('/topic/workers/updated', (message) => {
-      const worker = JSON.parse(message.body);
-      this.notifySubscribers('updated', worker);
-    });
+    // Изменения работников приходят пачками: сервер накапливает их за короткое окно
+    // и схлопывает повторные изменения одного работника
+    this.client.subscribe('/topic/workers/batch', (message) => {
+      const batch = JSON.parse(message.body);
 
-    // Подписка на удаление работников
-    this.client.subscribe('/topic/workers/deleted', (message) => {
-      const workerId = JSON.parse(message.body);
-      this.notifySubscribers('deleted', workerId);
+      // Одно уведомление на пачку: подписчик перезагружает данные один раз, а не на каждого работника.
+      // reload - изменений слишком много, чтобы передать их списком
+      this.notifySubscribers('changed', {
+        reload: Boolean(batch.reload),
+        created: batch.created || [],
+        updated: batch.updated || [],
+        deleted: batch.deleted || [],
+      });
     });
   }
 
-  onWorkerCreated(callback) {
-    this.subscribers.created.push(callback);
-    return () => {
-      this.subscribers.created = this.subscribers.created.filter(cb => cb !== callback);
-    };
-  }
-
-  onWorkerUpdated(callback) {
-    this.subscribers.updated.push(callback);
-    return () => {
-      this.subscribers.updated = this.subscribers.updated.filter(cb => cb !== callback);
-    };
-  }
-
-  onWorkerDeleted(callback) {
-    this.subscribers.deleted.push(callback);
+  onWorkersChanged(callback) {
+    this.subscribers.changed.push(callback);
     return () => {
-      this.subscribers.deleted = this.subscribers.deleted.filter(cb => cb !== callback);
+      this.subscribers.changed = this.subscribers.changed.filter(cb => cb !== callback);
     };
   }
 